@@ -0,0 +1,94 @@
+package com.wissensalt.springsecuritysessionredis.component;
+
+import com.wissensalt.springsecuritysessionredis.config.AuthorityCacheProperties;
+import com.wissensalt.springsecuritysessionredis.model.Account;
+import com.wissensalt.springsecuritysessionredis.model.Privilege;
+import com.wissensalt.springsecuritysessionredis.model.Role;
+import com.wissensalt.springsecuritysessionredis.model.Role.RoleName;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.NoOpPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CustomAuthenticationManagerBenchmark {
+
+  private static final String EMAIL = "account-one@mail.com";
+  private static final String PASSWORD = "password";
+
+  @Param({"noop", "bcrypt"})
+  private String encoder;
+
+  @Param({"2", "32"})
+  private int privilegesPerRole;
+
+  private CustomAuthenticationManager authenticationManager;
+  private Authentication request;
+
+  @SuppressWarnings("deprecation")
+  @Setup
+  public void setUp() {
+    final PasswordEncoder passwordEncoder = "bcrypt".equals(this.encoder)
+        ? new BCryptPasswordEncoder(4)
+        : NoOpPasswordEncoder.getInstance();
+    final Account account = new Account();
+    account.setId(1L);
+    account.setEmail(EMAIL);
+    account.setPassword(passwordEncoder.encode(PASSWORD));
+    account.getRoles().add(role(1L, RoleName.ADMIN));
+    account.getRoles().add(role(2L, RoleName.USER));
+
+    this.authenticationManager = new CustomAuthenticationManager(username -> {
+      if (!EMAIL.equals(username)) {
+        throw new UsernameNotFoundException(username);
+      }
+      return account;
+    }, (user, newPassword) -> user, passwordEncoder, new RoleAuthorityCache(
+        new AuthorityCacheProperties(1000, Duration.ofMinutes(10))),
+        new PrivilegeRegistry(account.getRoles().stream()
+            .flatMap(role -> role.getPrivileges().stream())
+            .toList()),
+        new SimpleMeterRegistry());
+    this.request = UsernamePasswordAuthenticationToken.unauthenticated(EMAIL, PASSWORD);
+  }
+
+  @Benchmark
+  public Authentication authenticate() {
+    return this.authenticationManager.authenticate(this.request);
+  }
+
+  private Role role(long id, RoleName name) {
+    final Role role = new Role();
+    role.setId(id);
+    role.setName(name);
+    for (int i = 0; i < this.privilegesPerRole; i++) {
+      final Privilege privilege = new Privilege();
+      privilege.setId(id * 1000 + i);
+      privilege.setName("priv-" + name.getValue().toLowerCase() + "-" + i);
+      role.getPrivileges().add(privilege);
+    }
+
+    return role;
+  }
+}
@@ -0,0 +1,99 @@
+package com.wissensalt.springsecuritysessionredis.config;
+
+import com.wissensalt.springsecuritysessionredis.config.SessionConfig.SafeRedisSessionMapper;
+import com.wissensalt.springsecuritysessionredis.session.DeltaRedisSessionRepository;
+import com.wissensalt.springsecuritysessionredis.session.SessionSerializationFormat;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.session.MapSession;
+
+/**
+ * Session read path without Redis: the raw hash entries are decoded with the configured
+ * {@link RedisSerializer} and mapped with {@link SafeRedisSessionMapper}, exactly as
+ * {@link DeltaRedisSessionRepository#findById(String)} does after HGETALL.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SessionConfigBenchmark {
+
+  private static final String SESSION_ID = "7236284a-c369-498e-ae43-a3705ec64b2a";
+
+  @Param({"JSON", "COMPACT"})
+  private SessionSerializationFormat format;
+
+  private RedisSerializer<Object> serializer;
+  private SafeRedisSessionMapper mapper;
+  private Map<String, Object> entries;
+  private Map<String, byte[]> encodedEntries;
+
+  @Setup
+  public void setUp() {
+    final SessionConfig sessionConfig = new SessionConfig();
+    sessionConfig.setBeanClassLoader(getClass().getClassLoader());
+    final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    this.serializer = sessionConfig.springSessionDefaultRedisSerializer(
+        new SessionSerializerProperties(this.format), meterRegistry);
+    this.mapper = new SafeRedisSessionMapper(meterRegistry);
+
+    final long now = Instant.now().toEpochMilli();
+    this.entries = new HashMap<>();
+    this.entries.put("creationTime", now);
+    this.entries.put("lastAccessedTime", now);
+    this.entries.put("maxInactiveInterval", MapSession.DEFAULT_MAX_INACTIVE_INTERVAL_SECONDS);
+    this.entries.put("sessionAttr:"
+            + HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY,
+        new SecurityContextImpl(UsernamePasswordAuthenticationToken.authenticated(
+            "account-one@mail.com", null, List.of(
+                new SimpleGrantedAuthority("ADMIN"),
+                new SimpleGrantedAuthority("priv-write-item")))));
+    this.encodedEntries = new HashMap<>();
+    this.entries.forEach((key, value) -> this.encodedEntries.put(key,
+        this.serializer.serialize(value)));
+  }
+
+  @Benchmark
+  public MapSession mapSession() {
+    return this.mapper.apply(SESSION_ID, this.entries);
+  }
+
+  @Benchmark
+  public MapSession decodeAndMapSession() {
+    final Map<String, Object> decoded = new HashMap<>();
+    this.encodedEntries.forEach((key, value) -> decoded.put(key,
+        this.serializer.deserialize(value)));
+
+    return this.mapper.apply(SESSION_ID, decoded);
+  }
+
+  @Benchmark
+  public Map<String, byte[]> encodeSession() {
+    final Map<String, byte[]> encoded = new HashMap<>();
+    this.entries.forEach((key, value) -> encoded.put(key, this.serializer.serialize(value)));
+
+    return encoded;
+  }
+}
@@ -0,0 +1,75 @@
+package com.wissensalt.springsecuritysessionredis.session;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wissensalt.springsecuritysessionredis.component.PrivilegeAuthenticationToken;
+import com.wissensalt.springsecuritysessionredis.component.PrivilegeAuthenticationTokenMixin;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.jackson2.SecurityJackson2Modules;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SessionSerializerBenchmark {
+
+  @Param({"JSON", "COMPACT"})
+  private SessionSerializationFormat format;
+
+  @Param({"username-password", "privilege"})
+  private String authentication;
+
+  private RedisSerializer<Object> serializer;
+  private SecurityContextImpl securityContext;
+  private byte[] encoded;
+
+  @Setup
+  public void setUp() {
+    final ObjectMapper mapper = new ObjectMapper();
+    mapper.registerModules(SecurityJackson2Modules.getModules(getClass().getClassLoader()));
+    mapper.addMixIn(PrivilegeAuthenticationToken.class, PrivilegeAuthenticationTokenMixin.class);
+    this.serializer = new CompactSessionSerializer(new GenericJackson2JsonRedisSerializer(mapper),
+        this.format);
+    final List<GrantedAuthority> authorities = List.of(
+        new SimpleGrantedAuthority("ADMIN"),
+        new SimpleGrantedAuthority("priv-write-item"),
+        new SimpleGrantedAuthority("priv-read-item"));
+    this.securityContext = new SecurityContextImpl("privilege".equals(this.authentication)
+        ? new PrivilegeAuthenticationToken(1L, "account-one@mail.com", authorities,
+        new long[]{0b110})
+        : UsernamePasswordAuthenticationToken.authenticated("account-one@mail.com", "password",
+            authorities));
+    this.encoded = this.serializer.serialize(this.securityContext);
+    System.out.printf("%n%s %s SPRING_SECURITY_CONTEXT payload: %d bytes%n", this.format,
+        this.authentication, this.encoded.length);
+  }
+
+  @Benchmark
+  public byte[] encodeSecurityContext() {
+    return this.serializer.serialize(this.securityContext);
+  }
+
+  @Benchmark
+  public Object decodeSecurityContext() {
+    return this.serializer.deserialize(this.encoded);
+  }
+}
@@ -0,0 +1,188 @@
+package com.wissensalt.springsecuritysessionredis.loadtest;
+
+import com.wissensalt.springsecuritysessionredis.SpringSecuritySessionRedisApplication;
+import com.wissensalt.springsecuritysessionredis.request.BatchCreateItemRequest;
+import com.wissensalt.springsecuritysessionredis.request.CreateItemRequest;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.IntStream;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import redis.embedded.RedisServer;
+
+/**
+ * Starts the application against local stand-ins for Postgres and Redis and drives it through the
+ * login, session and item scenarios:
+ * <ol>
+ *   <li>{@code register} and {@code login} storms for {@code loadtest.users} accounts, half of
+ *   them ADMIN (item writes) and half USER (item reads)</li>
+ *   <li>{@code read}: steady {@code /user} and {@code /items/page} requests with a session token</li>
+ *   <li>{@code write}: single and batched item inserts</li>
+ *   <li>{@code logout-churn}: logout, login and a first authenticated request per account</li>
+ * </ol>
+ */
+public class LoadTest {
+
+  private static final String PASSWORD = "load-test-password";
+  private static final Duration STORM_BUDGET = Duration.ofMinutes(10);
+  private static final int BATCH_SIZE = 20;
+
+  public static void main(String[] args) throws Exception {
+    final LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+    final EmbeddedPostgres postgres = settings.datasourceUrl() == null
+        ? EmbeddedPostgres.start()
+        : null;
+    final int redisPort = settings.redisPort() != null ? settings.redisPort() : freePort();
+    final RedisServer redis = settings.redisPort() == null ? new RedisServer(redisPort) : null;
+    if (redis != null) {
+      redis.start();
+    }
+
+    final List<String> applicationArgs = new ArrayList<>();
+    applicationProperties(settings, postgres, redisPort)
+        .forEach((name, value) -> applicationArgs.add("--" + name + "=" + value));
+    applicationArgs.addAll(List.of(args));
+
+    try (ConfigurableApplicationContext context = new SpringApplicationBuilder(
+        SpringSecuritySessionRedisApplication.class)
+        .run(applicationArgs.toArray(String[]::new))) {
+      final String baseUrl = "http://localhost:"
+          + context.getEnvironment().getProperty("local.server.port");
+      final LoadTestClient client = new LoadTestClient(baseUrl);
+      final ScenarioRunner runner = new ScenarioRunner(client,
+          context.getBean(RedisConnectionFactory.class), settings.concurrency());
+      ScenarioRunner.print(runScenarios(settings, client, runner));
+      checkSecurityContextLoads(context.getBean(MeterRegistry.class));
+    } finally {
+      if (redis != null) {
+        redis.stop();
+      }
+      if (postgres != null) {
+        postgres.close();
+      }
+    }
+  }
+
+  private static List<ScenarioRunner.Result> runScenarios(LoadTestSettings settings,
+      LoadTestClient client, ScenarioRunner runner) throws Exception {
+    final int users = settings.users();
+    final String runId = Long.toString(System.currentTimeMillis(), 36);
+    final String[] emails = IntStream.range(0, users)
+        .mapToObj(index -> "load-" + runId + "-" + index + "@mail.com")
+        .toArray(String[]::new);
+    final String[] tokens = new String[users];
+    final ReentrantLock[] locks = IntStream.range(0, users)
+        .mapToObj(index -> new ReentrantLock())
+        .toArray(ReentrantLock[]::new);
+    final List<ScenarioRunner.Result> results = new ArrayList<>();
+
+    results.add(runner.run("register", users, STORM_BUDGET,
+        index -> client.register(emails[index], PASSWORD, isAdmin(index) ? "ADMIN" : "USER")));
+    results.add(runner.run("login", users, STORM_BUDGET,
+        index -> tokens[index] = client.login(emails[index], PASSWORD)));
+    results.add(runner.run("read", Integer.MAX_VALUE, settings.duration(), index -> {
+      final String token = tokens[randomUser(users, false)];
+      if (index % 2 == 0) {
+        client.get("/user", token);
+      } else {
+        client.get("/items/page?size=20", token);
+      }
+    }));
+    results.add(runner.run("write", Integer.MAX_VALUE, settings.duration(), index -> {
+      final String token = tokens[randomUser(users, true)];
+      if (index % 10 == 0) {
+        client.post("/items/batch", token, new BatchCreateItemRequest(
+            IntStream.range(0, BATCH_SIZE).mapToObj(LoadTest::item).toList()));
+      } else {
+        client.post("/items", token, item(index));
+      }
+    }));
+    results.add(runner.run("logout-churn", Integer.MAX_VALUE, settings.duration(), index -> {
+      final int user = index % users;
+      if (!locks[user].tryLock()) {
+        return;
+      }
+      try {
+        client.logout(tokens[user]);
+        tokens[user] = client.login(emails[user], PASSWORD);
+        client.get("/user", tokens[user]);
+      } finally {
+        locks[user].unlock();
+      }
+    }));
+
+    return results;
+  }
+
+  /**
+   * Passed as command line arguments so they take precedence over {@code application.yaml}.
+   */
+  private static Map<String, Object> applicationProperties(LoadTestSettings settings,
+      EmbeddedPostgres postgres, int redisPort) {
+    final Map<String, Object> properties = new HashMap<>();
+    properties.put("server.port", 0);
+    properties.put("spring.main.banner-mode", "off");
+    properties.put("logging.level.root", "warn");
+    properties.put("spring.datasource.url", postgres != null
+        ? postgres.getJdbcUrl("postgres", "postgres") + "&reWriteBatchedInserts=true"
+        : settings.datasourceUrl());
+    properties.put("spring.datasource.username", settings.datasourceUsername());
+    properties.put("spring.datasource.password", settings.datasourcePassword());
+    properties.put("spring.data.redis.host", "localhost");
+    properties.put("spring.data.redis.port", redisPort);
+    properties.put("app.session.store", settings.sessionStore());
+
+    return properties;
+  }
+
+  /**
+   * Fails the run when the session was asked for a security context more than once per request.
+   */
+  private static void checkSecurityContextLoads(MeterRegistry meterRegistry) {
+    final long requests = meterRegistry.find("http.server.requests").timers().stream()
+        .mapToLong(Timer::count)
+        .sum();
+    final double loads = meterRegistry.find("security.context.loads").counters().stream()
+        .mapToDouble(Counter::count)
+        .sum();
+    System.out.printf("%nsecurity context loads: %.0f for %d requests%n", loads, requests);
+    if (loads > requests) {
+      throw new IllegalStateException("Security context loaded " + loads + " times for "
+          + requests + " requests");
+    }
+  }
+
+  private static boolean isAdmin(int user) {
+    return user % 2 == 0;
+  }
+
+  private static int randomUser(int users, boolean admin) {
+    final int user = ThreadLocalRandom.current().nextInt(users);
+
+    return isAdmin(user) == admin ? user : (user + 1) % users;
+  }
+
+  private static CreateItemRequest item(int index) {
+    return new CreateItemRequest("load-item-" + index,
+        BigDecimal.valueOf(ThreadLocalRandom.current().nextInt(1, 100_000), 2));
+  }
+
+  private static int freePort() throws IOException {
+    try (ServerSocket socket = new ServerSocket(0)) {
+      return socket.getLocalPort();
+    }
+  }
+}
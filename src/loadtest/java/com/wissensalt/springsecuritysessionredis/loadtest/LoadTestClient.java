@@ -0,0 +1,126 @@
+package com.wissensalt.springsecuritysessionredis.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Issues the API calls used by the scenarios and records the latency of every request, including
+ * failed ones, in microseconds.
+ */
+class LoadTestClient {
+
+  static final String AUTH_HEADER = "X-Auth-Token";
+
+  private final HttpClient httpClient = HttpClient.newBuilder()
+      .connectTimeout(Duration.ofSeconds(5))
+      .build();
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final String baseUrl;
+  private final Recorder recorder = new Recorder(3);
+  private final LongAdder requests = new LongAdder();
+  private final LongAdder errors = new LongAdder();
+
+  LoadTestClient(String baseUrl) {
+    this.baseUrl = baseUrl;
+  }
+
+  Recorder recorder() {
+    return this.recorder;
+  }
+
+  long requests() {
+    return this.requests.sum();
+  }
+
+  long errors() {
+    return this.errors.sum();
+  }
+
+  void resetCounters() {
+    this.requests.reset();
+    this.errors.reset();
+    this.recorder.reset();
+  }
+
+  boolean register(String email, String password, String role) {
+    return send(post("/register", null, """
+        {"email":"%s","password":"%s","role":"%s"}""".formatted(email, password, role))) != null;
+  }
+
+  String login(String email, String password) {
+    final JsonNode body = send(post("/login", null, """
+        {"email":"%s","password":"%s"}""".formatted(email, password)));
+
+    return body != null ? body.path("sessionId").asText(null) : null;
+  }
+
+  boolean logout(String token) {
+    return send(post("/logout", token, "")) != null;
+  }
+
+  boolean get(String path, String token) {
+    return send(request(path, token).GET().build()) != null;
+  }
+
+  JsonNode post(String path, String token, Object body) {
+    try {
+      return send(post(path, token, this.objectMapper.writeValueAsString(body)));
+    } catch (IOException ex) {
+      throw new IllegalStateException(ex);
+    }
+  }
+
+  private HttpRequest post(String path, String token, String json) {
+    return request(path, token)
+        .header("Content-Type", "application/json")
+        .POST(BodyPublishers.ofString(json))
+        .build();
+  }
+
+  private HttpRequest.Builder request(String path, String token) {
+    final HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(this.baseUrl + path))
+        .timeout(Duration.ofSeconds(30));
+    if (token != null) {
+      builder.header(AUTH_HEADER, token);
+    }
+
+    return builder;
+  }
+
+  private JsonNode send(HttpRequest request) {
+    final long start = System.nanoTime();
+    try {
+      final HttpResponse<byte[]> response =
+          this.httpClient.send(request, BodyHandlers.ofByteArray());
+      if (response.statusCode() / 100 != 2) {
+        this.errors.increment();
+        return null;
+      }
+      final boolean json = response.headers().firstValue("Content-Type")
+          .filter(contentType -> contentType.contains("json"))
+          .isPresent();
+
+      return json ? this.objectMapper.readTree(response.body()) : this.objectMapper.nullNode();
+    } catch (IOException ex) {
+      this.errors.increment();
+      return null;
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      this.errors.increment();
+      return null;
+    } finally {
+      this.requests.increment();
+      this.recorder.recordValue(Math.max((System.nanoTime() - start) / 1000, 1));
+    }
+  }
+}
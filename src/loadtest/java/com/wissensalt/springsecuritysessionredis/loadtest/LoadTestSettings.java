@@ -0,0 +1,30 @@
+package com.wissensalt.springsecuritysessionredis.loadtest;
+
+import java.time.Duration;
+
+/**
+ * Read from {@code -Dloadtest.*} system properties. Leaving {@code datasourceUrl} or
+ * {@code redisPort} unset starts an embedded Postgres or Redis for the run.
+ */
+record LoadTestSettings(
+    int users,
+    int concurrency,
+    Duration duration,
+    String sessionStore,
+    String datasourceUrl,
+    String datasourceUsername,
+    String datasourcePassword,
+    Integer redisPort) {
+
+  static LoadTestSettings fromSystemProperties() {
+    return new LoadTestSettings(
+        Integer.getInteger("loadtest.users", 200),
+        Integer.getInteger("loadtest.concurrency", 32),
+        Duration.parse("PT" + System.getProperty("loadtest.duration", "15s")),
+        System.getProperty("loadtest.session-store", "redis"),
+        System.getProperty("loadtest.datasource.url"),
+        System.getProperty("loadtest.datasource.username", "postgres"),
+        System.getProperty("loadtest.datasource.password", "postgres"),
+        Integer.getInteger("loadtest.redis.port"));
+  }
+}
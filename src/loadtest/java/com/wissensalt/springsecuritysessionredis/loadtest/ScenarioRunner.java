@@ -0,0 +1,115 @@
+package com.wissensalt.springsecuritysessionredis.loadtest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.HdrHistogram.Histogram;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+/**
+ * Runs a scenario body on a fixed number of virtual-thread workers until either the iteration
+ * count or the time budget is used up, and reports request latency percentiles, throughput and
+ * the Redis commands executed per request (from {@code INFO commandstats}).
+ */
+class ScenarioRunner {
+
+  interface Iteration {
+
+    void run(int index) throws Exception;
+  }
+
+  record Result(String name, long requests, long errors, double seconds, Histogram latencies,
+                long redisCommands) {
+
+    double throughput() {
+      return this.requests / this.seconds;
+    }
+  }
+
+  private final LoadTestClient client;
+  private final RedisConnectionFactory redisConnectionFactory;
+  private final int concurrency;
+
+  ScenarioRunner(LoadTestClient client, RedisConnectionFactory redisConnectionFactory,
+      int concurrency) {
+    this.client = client;
+    this.redisConnectionFactory = redisConnectionFactory;
+    this.concurrency = concurrency;
+  }
+
+  Result run(String name, int iterations, Duration duration, Iteration iteration)
+      throws Exception {
+    this.client.resetCounters();
+    final long redisBefore = redisCommands();
+    final AtomicInteger next = new AtomicInteger();
+    final long start = System.nanoTime();
+    final long deadline = start + duration.toNanos();
+    try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+      final List<Future<?>> futures = new ArrayList<>();
+      for (int worker = 0; worker < this.concurrency; worker++) {
+        futures.add(workers.submit(() -> {
+          int index;
+          while (System.nanoTime() < deadline && (index = next.getAndIncrement()) < iterations) {
+            iteration.run(index);
+          }
+          return null;
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    }
+    final double seconds = (System.nanoTime() - start) / 1e9;
+    final long redisAfter = redisCommands();
+
+    return new Result(name, this.client.requests(), this.client.errors(), seconds,
+        this.client.recorder().getIntervalHistogram(),
+        redisBefore < 0 || redisAfter < 0 ? -1 : redisAfter - redisBefore - 1);
+  }
+
+  static void print(List<Result> results) {
+    System.out.printf("%n%-16s %9s %7s %10s %9s %9s %9s %9s %9s %10s%n", "scenario", "requests",
+        "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "redis/req");
+    for (Result result : results) {
+      final Histogram latencies = result.latencies();
+      System.out.printf("%-16s %9d %7d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f %10s%n",
+          result.name(), result.requests(), result.errors(), result.throughput(),
+          latencies.getValueAtPercentile(50) / 1000.0,
+          latencies.getValueAtPercentile(90) / 1000.0,
+          latencies.getValueAtPercentile(99) / 1000.0,
+          latencies.getValueAtPercentile(99.9) / 1000.0,
+          latencies.getMaxValue() / 1000.0,
+          result.redisCommands() < 0 || result.requests() == 0 ? "n/a"
+              : "%.2f".formatted((double) result.redisCommands() / result.requests()));
+    }
+  }
+
+  private long redisCommands() {
+    try (RedisConnection connection = this.redisConnectionFactory.getConnection()) {
+      final Properties stats = connection.serverCommands().info("commandstats");
+      if (stats == null) {
+        return -1;
+      }
+      long calls = 0;
+      for (String name : stats.stringPropertyNames()) {
+        if (!name.startsWith("cmdstat_")) {
+          continue;
+        }
+        final String value = stats.getProperty(name);
+        final int start = value.indexOf("calls=") + "calls=".length();
+        final int end = value.indexOf(',', start);
+        calls += Long.parseLong(value.substring(start, end < 0 ? value.length() : end));
+      }
+
+      return calls;
+    } catch (RuntimeException ex) {
+      return -1;
+    }
+  }
+}
@@ -0,0 +1,272 @@
+package com.wissensalt.springsecuritysessionredis.component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.wissensalt.springsecuritysessionredis.config.AccountFilterProperties;
+import com.wissensalt.springsecuritysessionredis.repository.AccountRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.SubscriptionListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Answers whether an account may exist for an email without asking Postgres: a bloom filter over
+ * all account emails rejects most unknown emails, and a short-lived negative cache remembers the
+ * ones that got past the filter but were not found. Until the first {@link #rebuild()} completes
+ * every email is reported as possibly existing.
+ *
+ * <p>Registrations are added after their transaction commits and, when a Redis template is given,
+ * fanned out to the other nodes through a pub/sub channel. Pub/sub delivery is not guaranteed, so
+ * every {@code catch-up-interval} the filter also adds the emails of accounts created since the
+ * last scan, re-reading the last {@code catch-up-overlap} ids to pick up transactions that
+ * committed out of id order. A resubscription of the channel, which may have lost messages,
+ * triggers a full rebuild on the next catch-up.
+ */
+@Slf4j
+public class AccountEmailFilter implements MessageListener, SubscriptionListener {
+
+  private static final char SEPARATOR = ':';
+
+  private final AccountRepository accountRepository;
+  private final TransactionTemplate transactionTemplate;
+  private final StringRedisTemplate redisTemplate;
+  private final AccountFilterProperties properties;
+  private final Cache<String, Boolean> unknownEmails;
+  private final Counter bloomRejections;
+  private final Counter negativeCacheRejections;
+  private final Counter publishFailures;
+  private final String nodeId = UUID.randomUUID().toString();
+
+  private final AtomicBoolean subscribed = new AtomicBoolean();
+  private final AtomicBoolean rebuildRequested = new AtomicBoolean();
+
+  private volatile BloomFilter bloomFilter;
+  private volatile BloomFilter building;
+  private volatile long lastAccountId;
+
+  public AccountEmailFilter(AccountRepository accountRepository,
+      TransactionTemplate transactionTemplate, StringRedisTemplate redisTemplate,
+      AccountFilterProperties properties, MeterRegistry meterRegistry) {
+    this.accountRepository = accountRepository;
+    this.transactionTemplate = transactionTemplate;
+    this.redisTemplate = redisTemplate;
+    this.properties = properties;
+    this.unknownEmails = Caffeine.newBuilder()
+        .maximumSize(properties.negativeCacheSize())
+        .expireAfterWrite(properties.negativeCacheTtl())
+        .build();
+    this.bloomRejections = rejections(meterRegistry, "bloom-filter");
+    this.negativeCacheRejections = rejections(meterRegistry, "negative-cache");
+    this.publishFailures = Counter.builder("redis.publish.failures")
+        .description("Pub/sub messages that could not be sent")
+        .tag("channel", properties.channel())
+        .register(meterRegistry);
+  }
+
+  public boolean mightExist(String email) {
+    final BloomFilter filter = this.bloomFilter;
+    if (filter != null && !filter.mightContain(email)) {
+      this.bloomRejections.increment();
+      return false;
+    }
+    if (this.unknownEmails.getIfPresent(email) != null) {
+      this.negativeCacheRejections.increment();
+      return false;
+    }
+
+    return true;
+  }
+
+  public void markUnknown(String email) {
+    this.unknownEmails.put(email, Boolean.TRUE);
+  }
+
+  public void add(String email) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      publish(email);
+      return;
+    }
+
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+      @Override
+      public void afterCommit() {
+        publish(email);
+      }
+    });
+  }
+
+  public void rebuild() {
+    final long accounts = this.accountRepository.count();
+    final BloomFilter filter = new BloomFilter(
+        Math.max(this.properties.expectedAccounts(), accounts * 2),
+        this.properties.falsePositiveRate());
+    this.building = filter;
+    try {
+      final long lastId = this.transactionTemplate.execute(status -> {
+        final long maxId = this.accountRepository.findMaxId();
+        try (Stream<String> emails = this.accountRepository.streamAllEmails()) {
+          emails.forEach(filter::put);
+        }
+        return maxId;
+      });
+      this.bloomFilter = filter;
+      this.lastAccountId = lastId;
+      log.info("Account email filter rebuilt with {} accounts", accounts);
+    } finally {
+      this.building = null;
+    }
+  }
+
+  /**
+   * Adds accounts created since the last scan, or rebuilds the filter after the channel was
+   * resubscribed. Runs on the same scheduler thread as {@link #rebuild()}.
+   */
+  public void catchUp() {
+    if (this.bloomFilter == null) {
+      return;
+    }
+    if (this.rebuildRequested.getAndSet(false)) {
+      rebuild();
+      return;
+    }
+
+    final long fromId = Math.max(0, this.lastAccountId - this.properties.catchUpOverlap());
+    this.transactionTemplate.executeWithoutResult(status -> {
+      final long toId = this.accountRepository.findMaxId();
+      this.accountRepository.findEmailsByIdBetween(fromId, toId).forEach(this::addLocally);
+      this.lastAccountId = Math.max(this.lastAccountId, toId);
+    });
+  }
+
+  @Override
+  public void onChannelSubscribed(byte[] channel, long count) {
+    if (this.subscribed.getAndSet(true)) {
+      log.info("Account email channel resubscribed, rebuilding the filter");
+      this.rebuildRequested.set(true);
+    }
+  }
+
+  @Override
+  public void onMessage(Message message, byte[] pattern) {
+    final String body = new String(message.getBody(), StandardCharsets.UTF_8);
+    final int separator = body.indexOf(SEPARATOR);
+    if (separator < 0 || this.nodeId.equals(body.substring(0, separator))) {
+      return;
+    }
+
+    addLocally(body.substring(separator + 1));
+  }
+
+  private void publish(String email) {
+    addLocally(email);
+    if (this.redisTemplate == null) {
+      return;
+    }
+    try {
+      this.redisTemplate.convertAndSend(this.properties.channel(),
+          this.nodeId + SEPARATOR + email);
+    } catch (DataAccessException ex) {
+      // the catch-up scan of the other nodes picks the account up
+      this.publishFailures.increment();
+      log.warn("Could not publish registration of {}", email, ex);
+    }
+  }
+
+  private void addLocally(String email) {
+    final BloomFilter filter = this.bloomFilter;
+    if (filter != null) {
+      filter.put(email);
+    }
+    final BloomFilter next = this.building;
+    if (next != null) {
+      next.put(email);
+    }
+    this.unknownEmails.invalidate(email);
+  }
+
+  private static Counter rejections(MeterRegistry meterRegistry, String source) {
+    return Counter.builder("auth.lookup.skipped")
+        .description("Logins for unknown emails answered without a database query")
+        .tag("source", source)
+        .register(meterRegistry);
+  }
+
+  /**
+   * Lock-free bloom filter using double hashing over one 64-bit hash. Lookups always probe all
+   * {@code k} bits, so their cost does not depend on whether the email is present.
+   */
+  static final class BloomFilter {
+
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+
+    BloomFilter(long expectedInsertions, double falsePositiveRate) {
+      final double rate = Math.min(Math.max(falsePositiveRate, 1e-9), 0.5);
+      final long insertions = Math.max(expectedInsertions, 1);
+      final long optimalBits = (long) Math.ceil(
+          -insertions * Math.log(rate) / (Math.log(2) * Math.log(2)));
+      this.bits = new AtomicLongArray((int) Math.min((optimalBits + 63) >>> 6,
+          Integer.MAX_VALUE - 8));
+      this.bitCount = (long) this.bits.length() << 6;
+      this.hashCount = Math.max(1, (int) Math.round((double) optimalBits / insertions
+          * Math.log(2)));
+    }
+
+    void put(String value) {
+      final long hash = hash(value);
+      long combined = hash;
+      for (int i = 0; i < this.hashCount; i++) {
+        final long index = Long.remainderUnsigned(combined, this.bitCount);
+        final int word = (int) (index >>> 6);
+        final long mask = 1L << index;
+        long current;
+        do {
+          current = this.bits.get(word);
+        } while ((current & mask) == 0 && !this.bits.compareAndSet(word, current, current | mask));
+        combined += hash >>> 32 | 1;
+      }
+    }
+
+    boolean mightContain(String value) {
+      final long hash = hash(value);
+      long combined = hash;
+      long missing = 0;
+      for (int i = 0; i < this.hashCount; i++) {
+        final long index = Long.remainderUnsigned(combined, this.bitCount);
+        missing |= ~this.bits.get((int) (index >>> 6)) & (1L << index);
+        combined += hash >>> 32 | 1;
+      }
+
+      return missing == 0;
+    }
+
+    private static long hash(String value) {
+      long hash = 0xcbf29ce484222325L;
+      for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+        hash ^= b;
+        hash *= 0x100000001b3L;
+      }
+      hash ^= hash >>> 33;
+      hash *= 0xff51afd7ed558ccdL;
+      hash ^= hash >>> 33;
+      hash *= 0xc4ceb3fe1a85ec53L;
+      hash ^= hash >>> 33;
+
+      return hash;
+    }
+  }
+}
@@ -0,0 +1,72 @@
+package com.wissensalt.springsecuritysessionredis.component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Caps the number of requests in flight. Requests that cannot get a permit within the acquire
+ * timeout are answered with 503 before the session is loaded from Redis.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+  private final Semaphore permits;
+  private final int maxConcurrentRequests;
+  private final long acquireTimeoutNanos;
+  private final Counter rejected;
+
+  public ConcurrencyLimitFilter(int maxConcurrentRequests, Duration acquireTimeout,
+      MeterRegistry meterRegistry) {
+    this.permits = new Semaphore(maxConcurrentRequests);
+    this.maxConcurrentRequests = maxConcurrentRequests;
+    this.acquireTimeoutNanos = acquireTimeout.toNanos();
+    this.rejected = Counter.builder("http.server.requests.rejected")
+        .description("Requests rejected because the concurrency limit was reached")
+        .register(meterRegistry);
+    Gauge.builder("http.server.requests.in-flight", this,
+            filter -> filter.maxConcurrentRequests - filter.permits.availablePermits())
+        .description("Requests currently holding a concurrency permit")
+        .register(meterRegistry);
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+      FilterChain filterChain) throws ServletException, IOException {
+    final boolean acquired;
+    try {
+      acquired = this.permits.tryAcquire(this.acquireTimeoutNanos, TimeUnit.NANOSECONDS);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value());
+      return;
+    }
+    if (!acquired) {
+      this.rejected.increment();
+      response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+      response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value());
+      return;
+    }
+
+    try {
+      filterChain.doFilter(request, response);
+    } finally {
+      this.permits.release();
+    }
+  }
+
+  @Override
+  protected boolean shouldNotFilterAsyncDispatch() {
+    return true;
+  }
+}
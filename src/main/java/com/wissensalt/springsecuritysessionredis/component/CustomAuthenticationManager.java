@@ -1,54 +1,111 @@
 package com.wissensalt.springsecuritysessionredis.component;
 
-import static org.apache.commons.collections4.CollectionUtils.emptyIfNull;
-import static org.apache.commons.collections4.CollectionUtils.isNotEmpty;
-
 import com.wissensalt.springsecuritysessionredis.model.Account;
-import java.util.ArrayList;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import java.util.List;
-import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 
-@RequiredArgsConstructor
+@Slf4j
 @Component
 public class CustomAuthenticationManager implements AuthenticationManager {
 
   private final UserDetailsService userDetailsService;
+  private final UserDetailsPasswordService userDetailsPasswordService;
   private final PasswordEncoder passwordEncoder;
+  private final RoleAuthorityCache roleAuthorityCache;
+  private final PrivilegeRegistry privilegeRegistry;
+  private final Timer lookupTimer;
+  private final Timer passwordTimer;
+  private final Counter rehashSkipped;
+  private volatile String userNotFoundPassword;
+
+  public CustomAuthenticationManager(UserDetailsService userDetailsService,
+      UserDetailsPasswordService userDetailsPasswordService, PasswordEncoder passwordEncoder,
+      RoleAuthorityCache roleAuthorityCache, PrivilegeRegistry privilegeRegistry,
+      MeterRegistry meterRegistry) {
+    this.userDetailsService = userDetailsService;
+    this.userDetailsPasswordService = userDetailsPasswordService;
+    this.passwordEncoder = passwordEncoder;
+    this.roleAuthorityCache = roleAuthorityCache;
+    this.privilegeRegistry = privilegeRegistry;
+    this.lookupTimer = timer(meterRegistry, "lookup");
+    this.passwordTimer = timer(meterRegistry, "password");
+    this.rehashSkipped = Counter.builder("auth.password.rehash.skipped")
+        .description("Outdated password hashes not upgraded because the hashing pool was full")
+        .register(meterRegistry);
+  }
 
-  @Transactional(readOnly = true)
   @Override
   public Authentication authenticate(Authentication authentication) throws AuthenticationException {
-    final Account account = (Account) userDetailsService
-        .loadUserByUsername((String) authentication.getPrincipal());
-    if (!passwordEncoder.matches((CharSequence) authentication.getCredentials(),
-        account.getPassword())) {
+    final Account account;
+    try {
+      account = (Account) lookupTimer.record(() -> userDetailsService
+          .loadUserByUsername((String) authentication.getPrincipal()));
+    } catch (UsernameNotFoundException ex) {
+      mitigateAgainstTimingAttack((CharSequence) authentication.getCredentials());
+      throw ex;
+    }
+    final Boolean matches = passwordTimer.record(() -> passwordEncoder
+        .matches((CharSequence) authentication.getCredentials(), account.getPassword()));
+    if (!Boolean.TRUE.equals(matches)) {
       throw new BadCredentialsException("Wrong password");
     }
+    upgradeEncoding(account, (CharSequence) authentication.getCredentials());
+
+    final List<GrantedAuthority> authorities =
+        roleAuthorityCache.getAuthorities(account.getRoles());
+    return new PrivilegeAuthenticationToken(
+        account.getId(),
+        account.getEmail(),
+        authorities,
+        privilegeRegistry.bitsOf(authorities));
+  }
+
+  /**
+   * Spends the same hashing work as a wrong password, so unknown emails rejected without a
+   * database query cannot be told apart by response time.
+   */
+  private void mitigateAgainstTimingAttack(CharSequence rawPassword) {
+    if (rawPassword == null) {
+      return;
+    }
+    if (userNotFoundPassword == null) {
+      userNotFoundPassword = passwordEncoder.encode("userNotFoundPassword");
+    }
+    passwordTimer.record(() -> passwordEncoder.matches(rawPassword, userNotFoundPassword));
+  }
 
-    final List<SimpleGrantedAuthority> authorities = new ArrayList<>();
-    if (isNotEmpty(account.getRoles())) {
-      account.getRoles().forEach(role -> {
-        authorities.add(new SimpleGrantedAuthority(role.getAuthority()));
-        authorities.addAll(emptyIfNull(role.getPrivileges())
-            .stream()
-            .map(privilege -> new SimpleGrantedAuthority(privilege.getName()))
-            .toList());
-      });
+  private void upgradeEncoding(Account account, CharSequence rawPassword) {
+    if (!passwordEncoder.upgradeEncoding(account.getPassword())) {
+      return;
+    }
+    try {
+      userDetailsPasswordService.updatePassword(account, passwordEncoder.encode(rawPassword));
+    } catch (PasswordHashingRejectedException ex) {
+      // the hash is upgraded on a later login when the hashing pool has room
+      rehashSkipped.increment();
+      log.debug("Skipped upgrading the password hash of {}: {}", account.getEmail(),
+          ex.getMessage());
     }
+  }
 
-    return new UsernamePasswordAuthenticationToken(
-        authentication.getPrincipal(),
-        authentication.getCredentials(),
-        authorities);
+  private static Timer timer(MeterRegistry meterRegistry, String stage) {
+    return Timer.builder("auth.authenticate")
+        .description("Time spent in each stage of a login")
+        .tag("stage", stage)
+        .publishPercentileHistogram()
+        .register(meterRegistry);
   }
 }
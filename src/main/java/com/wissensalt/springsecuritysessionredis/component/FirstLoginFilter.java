@@ -0,0 +1,36 @@
+package com.wissensalt.springsecuritysessionredis.component;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Reports the first successful response of the login endpoint to {@link StartupReport}, and steps
+ * out of the way once it has been recorded.
+ */
+public class FirstLoginFilter extends OncePerRequestFilter {
+
+  private final StartupReport startupReport;
+
+  public FirstLoginFilter(StartupReport startupReport) {
+    this.startupReport = startupReport;
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    return this.startupReport.isFirstLoginRecorded();
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+      FilterChain filterChain) throws ServletException, IOException {
+    filterChain.doFilter(request, response);
+    if (HttpStatus.valueOf(response.getStatus()).is2xxSuccessful()) {
+      this.startupReport.loginCompleted();
+    }
+  }
+}
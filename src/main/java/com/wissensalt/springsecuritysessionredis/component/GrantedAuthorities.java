@@ -0,0 +1,22 @@
+package com.wissensalt.springsecuritysessionredis.component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+/**
+ * One shared {@link GrantedAuthority} instance per authority name. Authority names come from the
+ * {@code role} and {@code privilege} tables, so the pool stays as small as those tables.
+ */
+public final class GrantedAuthorities {
+
+  private static final Map<String, GrantedAuthority> INTERNED = new ConcurrentHashMap<>();
+
+  private GrantedAuthorities() {
+  }
+
+  public static GrantedAuthority intern(String authority) {
+    return INTERNED.computeIfAbsent(authority, SimpleGrantedAuthority::new);
+  }
+}
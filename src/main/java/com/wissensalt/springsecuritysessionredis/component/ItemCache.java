@@ -0,0 +1,143 @@
+package com.wissensalt.springsecuritysessionredis.component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.wissensalt.springsecuritysessionredis.config.ItemCacheProperties;
+import com.wissensalt.springsecuritysessionredis.response.ItemResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Read-through cache for item lookups by id and for the full catalog. Both are bounded by
+ * {@code app.items.cache.maximum-size} items and expire {@code time-to-live} after loading; a
+ * catalog larger than the bound is not kept at all.
+ *
+ * <p>Writes call {@link #invalidate(Collection)} once their transaction commits. The changed ids
+ * and the catalog are dropped locally and, when a Redis template is given, on the other nodes
+ * through a pub/sub channel. A failed publish is logged and counted as
+ * {@code redis.publish.failures}; the other nodes then catch up when their entries expire. Hits
+ * and misses are published as {@code cache.gets} with {@code cache=items} and
+ * {@code cache=item-catalog}.
+ */
+@Slf4j
+public class ItemCache implements MessageListener {
+
+  private static final char SEPARATOR = ':';
+  private static final String ID_SEPARATOR = ",";
+  private static final String CATALOG_KEY = "all";
+
+  private final Cache<Long, ItemResponse> items;
+  private final Cache<String, List<ItemResponse>> catalog;
+  private final StringRedisTemplate redisTemplate;
+  private final String channel;
+  private final Counter publishFailures;
+  private final String nodeId = UUID.randomUUID().toString();
+
+  public ItemCache(ItemCacheProperties properties, StringRedisTemplate redisTemplate,
+      MeterRegistry meterRegistry) {
+    this.items = Caffeine.newBuilder()
+        .maximumSize(properties.maximumSize())
+        .expireAfterWrite(properties.timeToLive())
+        .recordStats()
+        .build();
+    this.catalog = Caffeine.newBuilder()
+        .maximumWeight(properties.maximumSize())
+        .<String, List<ItemResponse>>weigher((key, value) -> value.size())
+        .expireAfterWrite(properties.timeToLive())
+        .recordStats()
+        .build();
+    this.redisTemplate = redisTemplate;
+    this.channel = properties.channel();
+    this.publishFailures = Counter.builder("redis.publish.failures")
+        .description("Pub/sub messages that could not be sent")
+        .tag("channel", properties.channel())
+        .register(meterRegistry);
+    CaffeineCacheMetrics.monitor(meterRegistry, this.items, "items");
+    CaffeineCacheMetrics.monitor(meterRegistry, this.catalog, "item-catalog");
+  }
+
+  /**
+   * @return the cached item, or the one returned by the loader, which may be {@code null}
+   */
+  public ItemResponse get(long id, Function<Long, ItemResponse> loader) {
+    return this.items.get(id, loader);
+  }
+
+  public List<ItemResponse> getAll(Supplier<List<ItemResponse>> loader) {
+    return this.catalog.get(CATALOG_KEY, key -> List.copyOf(loader.get()));
+  }
+
+  public void invalidate(Collection<Long> ids) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      publish(ids);
+      return;
+    }
+
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+      @Override
+      public void afterCommit() {
+        publish(ids);
+      }
+    });
+  }
+
+  @Override
+  public void onMessage(Message message, byte[] pattern) {
+    final String body = new String(message.getBody(), StandardCharsets.UTF_8);
+    final int separator = body.indexOf(SEPARATOR);
+    if (separator < 0 || this.nodeId.equals(body.substring(0, separator))) {
+      return;
+    }
+
+    final String ids = body.substring(separator + 1);
+    if (ids.isEmpty()) {
+      invalidateLocally(List.of());
+      return;
+    }
+    try {
+      invalidateLocally(Arrays.stream(ids.split(ID_SEPARATOR))
+          .map(Long::valueOf)
+          .toList());
+    } catch (NumberFormatException ex) {
+      this.items.invalidateAll();
+      this.catalog.invalidateAll();
+    }
+  }
+
+  private void publish(Collection<Long> ids) {
+    invalidateLocally(ids);
+    if (this.redisTemplate == null) {
+      return;
+    }
+    try {
+      this.redisTemplate.convertAndSend(this.channel, this.nodeId + SEPARATOR + ids.stream()
+          .map(String::valueOf)
+          .collect(Collectors.joining(ID_SEPARATOR)));
+    } catch (DataAccessException ex) {
+      this.publishFailures.increment();
+      log.warn("Could not publish item cache invalidation for {}", ids, ex);
+    }
+  }
+
+  private void invalidateLocally(Collection<Long> ids) {
+    this.items.invalidateAll(ids);
+    this.catalog.invalidateAll();
+  }
+}
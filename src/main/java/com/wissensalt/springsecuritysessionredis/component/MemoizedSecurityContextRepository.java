@@ -0,0 +1,160 @@
+package com.wissensalt.springsecuritysessionredis.component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.security.authentication.AuthenticationTrustResolver;
+import org.springframework.security.authentication.AuthenticationTrustResolverImpl;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.DeferredSecurityContext;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextHolderStrategy;
+import org.springframework.security.web.context.HttpRequestResponseHolder;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.security.web.context.SecurityContextRepository;
+
+/**
+ * The only {@link SecurityContextRepository} of the servlet application, shared by the filter
+ * chain and the login service. The context is read from the session only when authorization asks
+ * for it, and at most once per request: the deferred context is kept in a request attribute, so
+ * later loads, {@link #containsContext} and a context saved by a login all reuse it. Permit-all
+ * requests that never ask do not touch the session store.
+ *
+ * <p>Session reads are counted as {@code security.context.loads}, tagged with whether a context
+ * was found, the session held none or there was no session.
+ */
+public class MemoizedSecurityContextRepository implements SecurityContextRepository {
+
+  private static final String DEFERRED_CONTEXT_ATTRIBUTE =
+      MemoizedSecurityContextRepository.class.getName() + ".DEFERRED_CONTEXT";
+  private static final String SESSION_ATTRIBUTE =
+      HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY;
+
+  private final SecurityContextHolderStrategy securityContextHolderStrategy =
+      SecurityContextHolder.getContextHolderStrategy();
+  private final AuthenticationTrustResolver trustResolver = new AuthenticationTrustResolverImpl();
+  private final Counter found;
+  private final Counter empty;
+  private final Counter noSession;
+
+  public MemoizedSecurityContextRepository(MeterRegistry meterRegistry) {
+    this.found = counter(meterRegistry, "found");
+    this.empty = counter(meterRegistry, "empty");
+    this.noSession = counter(meterRegistry, "no-session");
+  }
+
+  /**
+   * @deprecated use {@link #loadDeferredContext(HttpServletRequest)}
+   */
+  @Deprecated
+  @Override
+  public SecurityContext loadContext(HttpRequestResponseHolder requestResponseHolder) {
+    return loadDeferredContext(requestResponseHolder.getRequest()).get();
+  }
+
+  @Override
+  public DeferredSecurityContext loadDeferredContext(HttpServletRequest request) {
+    if (request.getAttribute(DEFERRED_CONTEXT_ATTRIBUTE)
+        instanceof DeferredSecurityContext deferredContext) {
+      return deferredContext;
+    }
+
+    final SessionDeferredSecurityContext deferredContext =
+        new SessionDeferredSecurityContext(request);
+    request.setAttribute(DEFERRED_CONTEXT_ATTRIBUTE, deferredContext);
+
+    return deferredContext;
+  }
+
+  @Override
+  public void saveContext(SecurityContext context, HttpServletRequest request,
+      HttpServletResponse response) {
+    request.setAttribute(DEFERRED_CONTEXT_ATTRIBUTE,
+        new SessionDeferredSecurityContext(request, context));
+    final Authentication authentication = context.getAuthentication();
+    if (authentication == null || this.trustResolver.isAnonymous(authentication)) {
+      final HttpSession session = request.getSession(false);
+      if (session != null && session.getAttribute(SESSION_ATTRIBUTE) != null) {
+        session.removeAttribute(SESSION_ATTRIBUTE);
+      }
+      return;
+    }
+
+    request.getSession().setAttribute(SESSION_ATTRIBUTE, context);
+  }
+
+  /**
+   * Answers from the memo without reading the session: a context that was neither resolved nor
+   * saved in this request counts as absent.
+   */
+  @Override
+  public boolean containsContext(HttpServletRequest request) {
+    return request.getAttribute(DEFERRED_CONTEXT_ATTRIBUTE)
+        instanceof SessionDeferredSecurityContext deferredContext
+        && deferredContext.isResolved() && !deferredContext.isGenerated();
+  }
+
+  private SecurityContext readContext(HttpServletRequest request) {
+    final HttpSession session = request.getSession(false);
+    if (session == null) {
+      this.noSession.increment();
+      return null;
+    }
+    if (session.getAttribute(SESSION_ATTRIBUTE) instanceof SecurityContext context) {
+      this.found.increment();
+      return context;
+    }
+
+    this.empty.increment();
+    return null;
+  }
+
+  private static Counter counter(MeterRegistry meterRegistry, String result) {
+    return Counter.builder("security.context.loads")
+        .description("Security contexts read from the session, at most one per request")
+        .tag("result", result)
+        .register(meterRegistry);
+  }
+
+  private final class SessionDeferredSecurityContext implements DeferredSecurityContext {
+
+    private final HttpServletRequest request;
+    private SecurityContext context;
+    private boolean generated;
+
+    private SessionDeferredSecurityContext(HttpServletRequest request) {
+      this.request = request;
+    }
+
+    private SessionDeferredSecurityContext(HttpServletRequest request, SecurityContext context) {
+      this.request = request;
+      this.context = context;
+    }
+
+    @Override
+    public SecurityContext get() {
+      if (this.context == null) {
+        this.context = readContext(this.request);
+        if (this.context == null) {
+          this.context = securityContextHolderStrategy.createEmptyContext();
+          this.generated = true;
+        }
+      }
+
+      return this.context;
+    }
+
+    @Override
+    public boolean isGenerated() {
+      get();
+      return this.generated;
+    }
+
+    private boolean isResolved() {
+      return this.context != null;
+    }
+  }
+}
@@ -0,0 +1,92 @@
+package com.wissensalt.springsecuritysessionredis.component;
+
+import com.wissensalt.springsecuritysessionredis.session.RedisSessionRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.util.List;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.session.SessionInformation;
+import org.springframework.security.core.session.SessionRegistry;
+import org.springframework.security.web.authentication.session.ConcurrentSessionControlAuthenticationStrategy;
+import org.springframework.security.web.authentication.session.SessionAuthenticationException;
+
+/**
+ * Counts logins that hit the maximum number of sessions as {@code auth.sessions.exceeded}, tagged
+ * with whether the login was rejected or an older session was expired.
+ *
+ * <p>With a {@link RedisSessionRegistry} and logins rejected over the limit, the count and the
+ * registration are a single atomic step in Redis, so the limit also holds for concurrent logins on
+ * different nodes. In that mode this strategy registers the session itself; see
+ * {@link #registersSessions()}.
+ */
+public class MeteredConcurrentSessionControlAuthenticationStrategy extends
+    ConcurrentSessionControlAuthenticationStrategy {
+
+  private final SessionRegistry sessionRegistry;
+  private final Counter rejected;
+  private final Counter expired;
+  private boolean exceptionIfMaximumExceeded;
+
+  public MeteredConcurrentSessionControlAuthenticationStrategy(SessionRegistry sessionRegistry,
+      MeterRegistry meterRegistry) {
+    super(sessionRegistry);
+    this.sessionRegistry = sessionRegistry;
+    this.rejected = counter(meterRegistry, "rejected");
+    this.expired = counter(meterRegistry, "expired");
+  }
+
+  @Override
+  public void setExceptionIfMaximumExceeded(boolean exceptionIfMaximumExceeded) {
+    super.setExceptionIfMaximumExceeded(exceptionIfMaximumExceeded);
+    this.exceptionIfMaximumExceeded = exceptionIfMaximumExceeded;
+  }
+
+  /**
+   * Whether {@link #onAuthentication} already registers the session, so no separate
+   * {@code RegisterSessionAuthenticationStrategy} is needed.
+   */
+  public boolean registersSessions() {
+    return this.exceptionIfMaximumExceeded
+        && this.sessionRegistry instanceof RedisSessionRegistry;
+  }
+
+  @Override
+  public void onAuthentication(Authentication authentication, HttpServletRequest request,
+      HttpServletResponse response) {
+    if (!registersSessions()) {
+      super.onAuthentication(authentication, request, response);
+      return;
+    }
+
+    final RedisSessionRegistry redisSessionRegistry = (RedisSessionRegistry) this.sessionRegistry;
+    final String sessionId = request.getSession().getId();
+    final int allowedSessions = getMaximumSessionsForThisUser(authentication);
+    if (allowedSessions == -1) {
+      redisSessionRegistry.registerNewSession(sessionId, authentication.getPrincipal());
+      return;
+    }
+    if (!redisSessionRegistry.registerNewSession(sessionId, authentication.getPrincipal(),
+        allowedSessions)) {
+      this.rejected.increment();
+      throw new SessionAuthenticationException(this.messages.getMessage(
+          "ConcurrentSessionControlAuthenticationStrategy.exceededAllowed",
+          new Object[] {allowedSessions}, "Maximum sessions of {0} for this principal exceeded"));
+    }
+  }
+
+  @Override
+  protected void allowableSessionsExceeded(List<SessionInformation> sessions,
+      int allowableSessions, SessionRegistry registry) throws SessionAuthenticationException {
+    (this.exceptionIfMaximumExceeded ? this.rejected : this.expired).increment();
+    super.allowableSessionsExceeded(sessions, allowableSessions, registry);
+  }
+
+  private static Counter counter(MeterRegistry meterRegistry, String action) {
+    return Counter.builder("auth.sessions.exceeded")
+        .description("Logins that exceeded the maximum number of sessions per account")
+        .tag("action", action)
+        .register(meterRegistry);
+  }
+}
@@ -0,0 +1,20 @@
+package com.wissensalt.springsecuritysessionredis.component;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+public class PasswordHashingRejectedException extends ResponseStatusException {
+
+  public PasswordHashingRejectedException() {
+    super(HttpStatus.TOO_MANY_REQUESTS, "Too many concurrent password checks");
+  }
+
+  @Override
+  public HttpHeaders getHeaders() {
+    final HttpHeaders headers = new HttpHeaders();
+    headers.set(HttpHeaders.RETRY_AFTER, "1");
+
+    return headers;
+  }
+}
@@ -0,0 +1,101 @@
+package com.wissensalt.springsecuritysessionredis.component;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.util.Assert;
+
+/**
+ * Immutable authentication stored in the session after a login. It keeps the account id, the
+ * email as principal and interned authorities, but never the password. The privileges of its
+ * authorities are also kept as a bitset indexed by {@link PrivilegeRegistry}, so method security
+ * can test them without scanning the authorities.
+ */
+public final class PrivilegeAuthenticationToken extends AbstractAuthenticationToken {
+
+  private final long accountId;
+  private final String email;
+  private final long[] privileges;
+
+  public PrivilegeAuthenticationToken(long accountId, String email,
+      Collection<? extends GrantedAuthority> authorities, long[] privileges) {
+    super(authorities.stream()
+        .map(authority -> GrantedAuthorities.intern(authority.getAuthority()))
+        .toList());
+    Assert.hasText(email, "email must not be empty");
+    this.accountId = accountId;
+    this.email = email;
+    this.privileges = privileges.clone();
+    super.setAuthenticated(true);
+  }
+
+  public static PrivilegeAuthenticationToken of(long accountId, String email,
+      String[] authorities, long[] privileges) {
+    return new PrivilegeAuthenticationToken(accountId, email, Arrays.stream(authorities)
+        .map(GrantedAuthorities::intern)
+        .toList(), privileges);
+  }
+
+  public long getAccountId() {
+    return this.accountId;
+  }
+
+  public String getEmail() {
+    return this.email;
+  }
+
+  public String[] getAuthorityNames() {
+    return getAuthorities().stream()
+        .map(GrantedAuthority::getAuthority)
+        .toArray(String[]::new);
+  }
+
+  public long[] getPrivileges() {
+    return this.privileges.clone();
+  }
+
+  public boolean hasAnyPrivilege(long[] mask) {
+    for (int i = 0, words = Math.min(mask.length, this.privileges.length); i < words; i++) {
+      if ((this.privileges[i] & mask[i]) != 0) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  @Override
+  public Object getCredentials() {
+    return null;
+  }
+
+  @Override
+  public Object getPrincipal() {
+    return this.email;
+  }
+
+  @Override
+  public void setAuthenticated(boolean authenticated) {
+    throw new UnsupportedOperationException("PrivilegeAuthenticationToken is immutable");
+  }
+
+  @Override
+  public void setDetails(Object details) {
+    throw new UnsupportedOperationException("PrivilegeAuthenticationToken is immutable");
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    return obj instanceof PrivilegeAuthenticationToken other
+        && this.accountId == other.accountId
+        && Arrays.equals(this.privileges, other.privileges)
+        && super.equals(obj);
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * super.hashCode() + Long.hashCode(this.accountId);
+  }
+}
@@ -0,0 +1,41 @@
+package com.wissensalt.springsecuritysessionredis.component;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+
+/**
+ * Jackson mixin that allows {@link PrivilegeAuthenticationToken} in sessions serialized with
+ * {@code SecurityJackson2Modules}. Authorities are written as plain names and the privileges as a
+ * number array, so neither needs type information.
+ */
+@JsonTypeInfo(use = JsonTypeInfo.Id.CLASS)
+@JsonAutoDetect(fieldVisibility = JsonAutoDetect.Visibility.NONE,
+    getterVisibility = JsonAutoDetect.Visibility.NONE,
+    isGetterVisibility = JsonAutoDetect.Visibility.NONE,
+    setterVisibility = JsonAutoDetect.Visibility.NONE)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public abstract class PrivilegeAuthenticationTokenMixin {
+
+  @JsonCreator
+  static PrivilegeAuthenticationToken of(@JsonProperty("accountId") long accountId,
+      @JsonProperty("email") String email,
+      @JsonProperty("authorities") String[] authorities,
+      @JsonProperty("privileges") long[] privileges) {
+    return null;
+  }
+
+  @JsonProperty("accountId")
+  abstract long getAccountId();
+
+  @JsonProperty("email")
+  abstract String getEmail();
+
+  @JsonProperty("authorities")
+  abstract String[] getAuthorityNames();
+
+  @JsonProperty("privileges")
+  abstract long[] getPrivileges();
+}
@@ -0,0 +1,95 @@
+package com.wissensalt.springsecuritysessionredis.component;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.MethodClassKey;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.core.Authentication;
+
+/**
+ * {@link PreAuthorize} manager that answers {@code hasAuthority('...')} and
+ * {@code hasAnyAuthority('...', ...)} on privileges with a bit test against the
+ * {@link PrivilegeAuthenticationToken} of the request. The expression of each method is compiled
+ * into a privilege mask on its first call per target class, since an interface method may be
+ * implemented by beans with different annotations; other expressions, authorities that are not
+ * privileges and other authentication types are evaluated by the SpEL delegate.
+ */
+public class PrivilegeAuthorizationManager implements AuthorizationManager<MethodInvocation> {
+
+  private static final Pattern AUTHORITY_EXPRESSION =
+      Pattern.compile("\\s*has(?:Any)?Authority\\(\\s*('[^']*'(?:\\s*,\\s*'[^']*')*)\\s*\\)\\s*");
+  private static final Pattern AUTHORITY_NAME = Pattern.compile("'([^']*)'");
+  private static final long[] NO_MASK = new long[0];
+  private static final AuthorizationDecision GRANTED = new AuthorizationDecision(true);
+  private static final AuthorizationDecision DENIED = new AuthorizationDecision(false);
+
+  private final ObjectProvider<PrivilegeRegistry> privilegeRegistry;
+  private final AuthorizationManager<MethodInvocation> delegate;
+  private final Map<MethodClassKey, long[]> masks = new ConcurrentHashMap<>();
+
+  public PrivilegeAuthorizationManager(ObjectProvider<PrivilegeRegistry> privilegeRegistry,
+      AuthorizationManager<MethodInvocation> delegate) {
+    this.privilegeRegistry = privilegeRegistry;
+    this.delegate = delegate;
+  }
+
+  @Override
+  public AuthorizationDecision check(Supplier<Authentication> authentication,
+      MethodInvocation invocation) {
+    final Class<?> targetClass = invocation.getThis() != null
+        ? AopUtils.getTargetClass(invocation.getThis())
+        : invocation.getMethod().getDeclaringClass();
+    final long[] mask = this.masks.computeIfAbsent(
+        new MethodClassKey(invocation.getMethod(), targetClass),
+        key -> compile(invocation.getMethod(), targetClass));
+    if (mask != NO_MASK
+        && authentication.get() instanceof PrivilegeAuthenticationToken token
+        && token.isAuthenticated()) {
+      return token.hasAnyPrivilege(mask) ? GRANTED : DENIED;
+    }
+
+    return this.delegate.check(authentication, invocation);
+  }
+
+  private long[] compile(Method invokedMethod, Class<?> targetClass) {
+    final Method method = AopUtils.getMostSpecificMethod(invokedMethod, targetClass);
+    PreAuthorize preAuthorize = AnnotatedElementUtils.findMergedAnnotation(method,
+        PreAuthorize.class);
+    if (preAuthorize == null) {
+      preAuthorize = AnnotatedElementUtils.findMergedAnnotation(targetClass, PreAuthorize.class);
+    }
+    final Matcher expression = preAuthorize != null
+        ? AUTHORITY_EXPRESSION.matcher(preAuthorize.value())
+        : null;
+    if (expression == null || !expression.matches()) {
+      return NO_MASK;
+    }
+
+    final PrivilegeRegistry registry = this.privilegeRegistry.getObject();
+    long[] mask = new long[0];
+    final Matcher names = AUTHORITY_NAME.matcher(expression.group(1));
+    while (names.find()) {
+      final int bit = registry.bitOf(names.group(1));
+      if (bit < 0) {
+        return NO_MASK;
+      }
+      if (mask.length <= bit / Long.SIZE) {
+        mask = Arrays.copyOf(mask, bit / Long.SIZE + 1);
+      }
+      mask[bit / Long.SIZE] |= 1L << bit;
+    }
+
+    return mask;
+  }
+}
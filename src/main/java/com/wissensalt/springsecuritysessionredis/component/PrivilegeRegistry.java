@@ -0,0 +1,47 @@
+package com.wissensalt.springsecuritysessionredis.component;
+
+import com.wissensalt.springsecuritysessionredis.model.Privilege;
+import java.util.Collection;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.springframework.security.core.GrantedAuthority;
+
+/**
+ * Bit positions of the privileges, read once at startup from the {@code privilege} table. A
+ * privilege uses its id as bit position, so bitsets stored in sessions stay valid when privileges
+ * are added later.
+ */
+public class PrivilegeRegistry {
+
+  private final Map<String, Integer> bitsByName;
+  private final int words;
+
+  public PrivilegeRegistry(Collection<Privilege> privileges) {
+    this.bitsByName = privileges.stream()
+        .collect(Collectors.toUnmodifiableMap(Privilege::getName,
+            privilege -> Math.toIntExact(privilege.getId())));
+    this.words = this.bitsByName.values().stream()
+        .mapToInt(bit -> bit / Long.SIZE + 1)
+        .max()
+        .orElse(0);
+  }
+
+  /**
+   * @return the bit of the privilege, or {@code -1} when no privilege has that name
+   */
+  public int bitOf(String name) {
+    return this.bitsByName.getOrDefault(name, -1);
+  }
+
+  public long[] bitsOf(Collection<? extends GrantedAuthority> authorities) {
+    final long[] bits = new long[this.words];
+    for (GrantedAuthority authority : authorities) {
+      final int bit = bitOf(authority.getAuthority());
+      if (bit >= 0) {
+        bits[bit / Long.SIZE] |= 1L << bit;
+      }
+    }
+
+    return bits;
+  }
+}
@@ -0,0 +1,49 @@
+package com.wissensalt.springsecuritysessionredis.component;
+
+import io.lettuce.core.event.command.CommandFailedEvent;
+import io.lettuce.core.event.command.CommandListener;
+import io.lettuce.core.event.command.CommandStartedEvent;
+import io.lettuce.core.event.command.CommandSucceededEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lettuce {@link CommandListener} that publishes the commands sent but not yet answered as
+ * {@code redis.commands.in-flight} and failed commands as {@code redis.commands.failed}, both
+ * tagged with the connection factory they belong to. A gauge that keeps climbing while latency
+ * grows means the connection, not Redis, is the bottleneck.
+ */
+public class RedisCommandMetrics implements CommandListener {
+
+  private final AtomicLong inFlight = new AtomicLong();
+  private final Counter failed;
+
+  public RedisCommandMetrics(MeterRegistry meterRegistry, String client) {
+    Gauge.builder("redis.commands.in-flight", this.inFlight, AtomicLong::get)
+        .description("Redis commands sent and waiting for a reply")
+        .tag("client", client)
+        .register(meterRegistry);
+    this.failed = Counter.builder("redis.commands.failed")
+        .description("Redis commands that completed with an error")
+        .tag("client", client)
+        .register(meterRegistry);
+  }
+
+  @Override
+  public void commandStarted(CommandStartedEvent event) {
+    this.inFlight.incrementAndGet();
+  }
+
+  @Override
+  public void commandSucceeded(CommandSucceededEvent event) {
+    this.inFlight.decrementAndGet();
+  }
+
+  @Override
+  public void commandFailed(CommandFailedEvent event) {
+    this.inFlight.decrementAndGet();
+    this.failed.increment();
+  }
+}
@@ -0,0 +1,62 @@
+package com.wissensalt.springsecuritysessionredis.component;
+
+import static org.apache.commons.collections4.CollectionUtils.emptyIfNull;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.wissensalt.springsecuritysessionredis.config.AuthorityCacheProperties;
+import com.wissensalt.springsecuritysessionredis.model.Privilege;
+import com.wissensalt.springsecuritysessionredis.model.Role;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+
+/**
+ * Immutable authority lists keyed by the ids of an account's roles. Accounts with the same role
+ * combination share one list, and every authority name maps to a single interned instance.
+ * Entries expire after {@code app.security.authority-cache.time-to-live}; call
+ * {@link #evictAll()} after changing {@code link_role_privilege}.
+ */
+@Component
+public class RoleAuthorityCache {
+
+  private final Cache<Set<Long>, List<GrantedAuthority>> authoritiesByRoles;
+
+  public RoleAuthorityCache(AuthorityCacheProperties properties) {
+    this.authoritiesByRoles = Caffeine.newBuilder()
+        .maximumSize(properties.maximumSize())
+        .expireAfterWrite(properties.timeToLive())
+        .build();
+  }
+
+  public List<GrantedAuthority> getAuthorities(Collection<Role> roles) {
+    if (roles == null || roles.isEmpty()) {
+      return List.of();
+    }
+
+    final Set<Long> roleIds = roles.stream()
+        .map(Role::getId)
+        .collect(Collectors.toUnmodifiableSet());
+    return this.authoritiesByRoles.get(roleIds, key -> resolveAuthorities(roles));
+  }
+
+  public void evictAll() {
+    this.authoritiesByRoles.invalidateAll();
+  }
+
+  private List<GrantedAuthority> resolveAuthorities(Collection<Role> roles) {
+    final Set<GrantedAuthority> authorities = new LinkedHashSet<>();
+    roles.forEach(role -> {
+      authorities.add(GrantedAuthorities.intern(role.getAuthority()));
+      for (Privilege privilege : emptyIfNull(role.getPrivileges())) {
+        authorities.add(GrantedAuthorities.intern(privilege.getName()));
+      }
+    });
+
+    return List.copyOf(authorities);
+  }
+}
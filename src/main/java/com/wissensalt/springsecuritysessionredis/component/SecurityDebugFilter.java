@@ -0,0 +1,56 @@
+package com.wissensalt.springsecuritysessionredis.component;
+
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Per-request replacement for {@code @EnableWebSecurity(debug = true)}: logs the matching security
+ * filter chain and the response status only for requests that carry {@link #HEADER}.
+ */
+@Slf4j
+public class SecurityDebugFilter extends OncePerRequestFilter {
+
+  public static final String HEADER = "X-Debug-Security";
+
+  private final List<SecurityFilterChain> securityFilterChains;
+
+  public SecurityDebugFilter(List<SecurityFilterChain> securityFilterChains) {
+    this.securityFilterChains = securityFilterChains;
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+      FilterChain filterChain) throws ServletException, IOException {
+    if (!Boolean.parseBoolean(request.getHeader(HEADER))) {
+      filterChain.doFilter(request, response);
+      return;
+    }
+
+    final List<String> filters = this.securityFilterChains.stream()
+        .filter(chain -> chain.matches(request))
+        .findFirst()
+        .map(chain -> chain.getFilters().stream()
+            .map(Filter::getClass)
+            .map(Class::getSimpleName)
+            .toList())
+        .orElse(List.of());
+    log.info("Request received for {} '{}' with session {}, security filter chain: {}",
+        request.getMethod(), request.getRequestURI(), request.getRequestedSessionId() != null,
+        filters);
+    final long start = System.nanoTime();
+    try {
+      filterChain.doFilter(request, response);
+    } finally {
+      log.info("Request completed for {} '{}' with status {} in {} us", request.getMethod(),
+          request.getRequestURI(), response.getStatus(), (System.nanoTime() - start) / 1000);
+    }
+  }
+}
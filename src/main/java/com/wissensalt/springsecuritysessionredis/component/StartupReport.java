@@ -0,0 +1,87 @@
+package com.wissensalt.springsecuritysessionredis.component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline.TimelineEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.metrics.ApplicationStartup;
+
+/**
+ * Logs the slowest {@link ApplicationStartup} steps once the application is ready and records the
+ * time from JVM start to the first completed login as {@code application.first-login.time}, next
+ * to Boot's {@code application.started.time} and {@code application.ready.time}. Steps are only
+ * available when the application was started with a {@link BufferingApplicationStartup}; the full
+ * timeline is also served by {@code /actuator/startup}.
+ */
+@Slf4j
+public class StartupReport implements ApplicationListener<ApplicationReadyEvent> {
+
+  private final ApplicationStartup applicationStartup;
+  private final int reportSteps;
+  private final long jvmStartTime = ManagementFactory.getRuntimeMXBean().getStartTime();
+  private final AtomicLong firstLoginMillis = new AtomicLong(-1);
+
+  public StartupReport(ApplicationStartup applicationStartup, int reportSteps,
+      MeterRegistry meterRegistry) {
+    this.applicationStartup = applicationStartup;
+    this.reportSteps = reportSteps;
+    TimeGauge.builder("application.first-login.time", this.firstLoginMillis,
+            TimeUnit.MILLISECONDS, millis -> millis.get() < 0 ? Double.NaN : millis.get())
+        .description("Time from JVM start until the first completed login")
+        .register(meterRegistry);
+  }
+
+  @Override
+  public void onApplicationEvent(ApplicationReadyEvent event) {
+    final Duration ready = event.getTimeTaken();
+    if (!(this.applicationStartup instanceof BufferingApplicationStartup buffering)
+        || this.reportSteps <= 0) {
+      log.info("Application ready in {} ms", ready.toMillis());
+      return;
+    }
+
+    final String slowest = buffering.getBufferedTimeline().getEvents().stream()
+        .sorted(Comparator.comparing(TimelineEvent::getDuration).reversed())
+        .limit(this.reportSteps)
+        .map(StartupReport::format)
+        .collect(Collectors.joining(System.lineSeparator()));
+    log.info("Application ready in {} ms, slowest startup steps:{}{}",
+        ready.toMillis(), System.lineSeparator(), slowest);
+  }
+
+  public boolean isFirstLoginRecorded() {
+    return this.firstLoginMillis.get() >= 0;
+  }
+
+  /**
+   * Records the first login after startup; later calls are ignored.
+   */
+  public void loginCompleted() {
+    if (isFirstLoginRecorded()) {
+      return;
+    }
+    final long millis = System.currentTimeMillis() - this.jvmStartTime;
+    if (this.firstLoginMillis.compareAndSet(-1, millis)) {
+      log.info("First login completed {} ms after JVM start", millis);
+    }
+  }
+
+  private static String format(TimelineEvent event) {
+    final String tags = StreamSupport.stream(event.getStartupStep().getTags().spliterator(), false)
+        .map(tag -> tag.getKey() + "=" + tag.getValue())
+        .collect(Collectors.joining(", "));
+
+    return String.format("%8d ms  %s%s", event.getDuration().toMillis(),
+        event.getStartupStep().getName(), tags.isEmpty() ? "" : " [" + tags + "]");
+  }
+}
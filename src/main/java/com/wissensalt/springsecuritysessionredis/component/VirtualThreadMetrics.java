@@ -0,0 +1,70 @@
+package com.wissensalt.springsecuritysessionredis.component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+
+/**
+ * Streams the JDK's virtual thread JFR events into meters. A pinned event is emitted when a
+ * virtual thread blocks longer than the threshold while it cannot unmount from its carrier,
+ * typically inside a {@code synchronized} block or a native frame.
+ */
+public class VirtualThreadMetrics implements MeterBinder, AutoCloseable {
+
+  private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+  private static final String SUBMIT_FAILED_EVENT = "jdk.VirtualThreadSubmitFailed";
+
+  private final RecordingStream recordingStream;
+  private final AtomicBoolean started = new AtomicBoolean();
+
+  public VirtualThreadMetrics(Duration pinnedThreshold) {
+    this.recordingStream = new RecordingStream();
+    this.recordingStream.enable(PINNED_EVENT).withThreshold(pinnedThreshold);
+    this.recordingStream.enable(SUBMIT_FAILED_EVENT);
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    final Timer pinned = Timer.builder("jvm.threads.virtual.pinned")
+        .description("Time virtual threads spent blocked while pinned to a carrier thread")
+        .register(registry);
+    final Counter submitFailed = Counter.builder("jvm.threads.virtual.submit.failed")
+        .description("Virtual threads that could not be scheduled or unparked")
+        .register(registry);
+    Gauge.builder("jvm.threads.virtual.carrier.parallelism", VirtualThreadMetrics::parallelism)
+        .description("Target number of carrier threads of the virtual thread scheduler")
+        .register(registry);
+    Gauge.builder("jvm.threads.virtual.carrier.max", VirtualThreadMetrics::maxPoolSize)
+        .description("Maximum number of carrier threads, including compensation for pinning")
+        .register(registry);
+
+    this.recordingStream.onEvent(PINNED_EVENT,
+        (RecordedEvent event) -> pinned.record(event.getDuration()));
+    this.recordingStream.onEvent(SUBMIT_FAILED_EVENT,
+        (RecordedEvent event) -> submitFailed.increment());
+    if (this.started.compareAndSet(false, true)) {
+      this.recordingStream.startAsync();
+    }
+  }
+
+  @Override
+  public void close() {
+    this.recordingStream.close();
+  }
+
+  private static int parallelism() {
+    return Integer.getInteger("jdk.virtualThreadScheduler.parallelism",
+        Runtime.getRuntime().availableProcessors());
+  }
+
+  private static int maxPoolSize() {
+    return Integer.getInteger("jdk.virtualThreadScheduler.maxPoolSize",
+        Math.max(parallelism(), 256));
+  }
+}
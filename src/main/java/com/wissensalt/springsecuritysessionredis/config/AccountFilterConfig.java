@@ -0,0 +1,57 @@
+package com.wissensalt.springsecuritysessionredis.config;
+
+import com.wissensalt.springsecuritysessionredis.component.AccountEmailFilter;
+import com.wissensalt.springsecuritysessionredis.repository.AccountRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.FixedDelayTask;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(prefix = "app.security.account-filter", name = "enabled",
+    havingValue = "true", matchIfMissing = true)
+public class AccountFilterConfig {
+
+  @Bean
+  public AccountEmailFilter accountEmailFilter(AccountRepository accountRepository,
+      PlatformTransactionManager transactionManager, StringRedisTemplate stringRedisTemplate,
+      ObjectProvider<RedisMessageListenerContainer> redisMessageListenerContainer,
+      AccountFilterProperties properties, MeterRegistry meterRegistry) {
+    final TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+    transactionTemplate.setReadOnly(true);
+    final RedisMessageListenerContainer listenerContainer =
+        redisMessageListenerContainer.getIfAvailable();
+    final AccountEmailFilter accountEmailFilter = new AccountEmailFilter(accountRepository,
+        transactionTemplate, listenerContainer != null ? stringRedisTemplate : null, properties,
+        meterRegistry);
+    if (listenerContainer != null) {
+      listenerContainer.addMessageListener(accountEmailFilter,
+          new ChannelTopic(properties.channel()));
+    }
+
+    return accountEmailFilter;
+  }
+
+  @Bean
+  public SchedulingConfigurer accountEmailFilterRebuild(AccountEmailFilter accountEmailFilter,
+      AccountFilterProperties properties) {
+    return registrar -> {
+      registrar.addFixedDelayTask(new FixedDelayTask(
+          accountEmailFilter::rebuild, properties.rebuildInterval(), Duration.ZERO));
+      registrar.addFixedDelayTask(new FixedDelayTask(
+          accountEmailFilter::catchUp, properties.catchUpInterval(),
+          properties.catchUpInterval()));
+    };
+  }
+}
@@ -0,0 +1,28 @@
+package com.wissensalt.springsecuritysessionredis.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties("app.security.account-filter")
+public record AccountFilterProperties(
+    @DefaultValue("true")
+    boolean enabled,
+    @DefaultValue("100000")
+    long expectedAccounts,
+    @DefaultValue("0.01")
+    double falsePositiveRate,
+    @DefaultValue("1h")
+    Duration rebuildInterval,
+    @DefaultValue("5s")
+    Duration catchUpInterval,
+    @DefaultValue("200")
+    long catchUpOverlap,
+    @DefaultValue("10000")
+    long negativeCacheSize,
+    @DefaultValue("1m")
+    Duration negativeCacheTtl,
+    @DefaultValue("app:accounts:registered")
+    String channel) {
+
+}
@@ -0,0 +1,14 @@
+package com.wissensalt.springsecuritysessionredis.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties("app.security.authority-cache")
+public record AuthorityCacheProperties(
+    @DefaultValue("1000")
+    long maximumSize,
+    @DefaultValue("10m")
+    Duration timeToLive) {
+
+}
@@ -0,0 +1,22 @@
+package com.wissensalt.springsecuritysessionredis.config;
+
+import com.wissensalt.springsecuritysessionredis.session.SessionStore;
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import org.springframework.context.annotation.Conditional;
+
+/**
+ * Matches when {@code app.session.store} selects the given {@link SessionStore}; Redis when the
+ * property is not set.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Documented
+@Conditional(OnSessionStoreCondition.class)
+public @interface ConditionalOnSessionStore {
+
+  SessionStore value();
+}
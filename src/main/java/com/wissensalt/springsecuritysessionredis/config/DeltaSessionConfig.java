@@ -0,0 +1,78 @@
+package com.wissensalt.springsecuritysessionredis.config;
+
+import com.wissensalt.springsecuritysessionredis.config.SessionConfig.SafeRedisSessionMapper;
+import com.wissensalt.springsecuritysessionredis.session.DeltaRedisSessionRepository;
+import com.wissensalt.springsecuritysessionredis.session.DeltaRedisSessionRepository.DeltaSession;
+import com.wissensalt.springsecuritysessionredis.session.InstrumentedSessionRepository;
+import com.wissensalt.springsecuritysessionredis.session.PrincipalSessionIndex;
+import com.wissensalt.springsecuritysessionredis.session.RedisSessionCleaner;
+import com.wissensalt.springsecuritysessionredis.session.SessionNearCache;
+import com.wissensalt.springsecuritysessionredis.session.SessionStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.data.redis.RedisProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.session.data.redis.RedisSessionRepository;
+
+@Configuration
+@ConditionalOnSessionStore(SessionStore.REDIS)
+public class DeltaSessionConfig {
+
+  @Primary
+  @Bean
+  public InstrumentedSessionRepository<DeltaSession> instrumentedSessionRepository(
+      DeltaRedisSessionRepository deltaRedisSessionRepository, MeterRegistry meterRegistry) {
+
+    return new InstrumentedSessionRepository<>(deltaRedisSessionRepository, meterRegistry);
+  }
+
+  @Bean
+  public DeltaRedisSessionRepository deltaRedisSessionRepository(
+      RedisSessionRepository redisSessionRepository,
+      @Qualifier("sessionReadConnectionFactory")
+      ObjectProvider<RedisConnectionFactory> sessionReadConnectionFactory,
+      @Qualifier("springSessionDefaultRedisSerializer")
+      RedisSerializer<Object> springSessionDefaultRedisSerializer,
+      ObjectProvider<SessionNearCache> sessionNearCache,
+      RedisSessionCleaner redisSessionCleaner,
+      PrincipalSessionIndex principalSessionIndex,
+      SessionWriteProperties sessionWriteProperties,
+      RedisProperties redisProperties,
+      MeterRegistry meterRegistry) {
+    final RedisConnectionFactory readConnectionFactory =
+        sessionReadConnectionFactory.getIfAvailable();
+
+    return new DeltaRedisSessionRepository(redisSessionRepository,
+        readConnectionFactory != null
+            ? readOperations(readConnectionFactory, springSessionDefaultRedisSerializer)
+            : null,
+        new SafeRedisSessionMapper(meterRegistry),
+        redisSessionCleaner::enqueue,
+        principalSessionIndex,
+        sessionNearCache.getIfAvailable(),
+        RedisSessionRepository.DEFAULT_KEY_NAMESPACE,
+        sessionWriteProperties.mode(),
+        sessionWriteProperties.touchThreshold(),
+        redisProperties.getCluster() != null);
+  }
+
+  private static RedisOperations<String, Object> readOperations(
+      RedisConnectionFactory connectionFactory, RedisSerializer<Object> valueSerializer) {
+    final RedisTemplate<String, Object> redisTemplate = new RedisTemplate<>();
+    redisTemplate.setKeySerializer(RedisSerializer.string());
+    redisTemplate.setHashKeySerializer(RedisSerializer.string());
+    redisTemplate.setValueSerializer(valueSerializer);
+    redisTemplate.setHashValueSerializer(valueSerializer);
+    redisTemplate.setConnectionFactory(connectionFactory);
+    redisTemplate.afterPropertiesSet();
+
+    return redisTemplate;
+  }
+}
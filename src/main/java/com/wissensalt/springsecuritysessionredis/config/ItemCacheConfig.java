@@ -0,0 +1,30 @@
+package com.wissensalt.springsecuritysessionredis.config;
+
+import com.wissensalt.springsecuritysessionredis.component.ItemCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+@Configuration
+public class ItemCacheConfig {
+
+  @Bean
+  public ItemCache itemCache(ItemCacheProperties properties,
+      StringRedisTemplate stringRedisTemplate,
+      ObjectProvider<RedisMessageListenerContainer> redisMessageListenerContainer,
+      MeterRegistry meterRegistry) {
+    final RedisMessageListenerContainer listenerContainer =
+        redisMessageListenerContainer.getIfAvailable();
+    final ItemCache itemCache = new ItemCache(properties,
+        listenerContainer != null ? stringRedisTemplate : null, meterRegistry);
+    if (listenerContainer != null) {
+      listenerContainer.addMessageListener(itemCache, new ChannelTopic(properties.channel()));
+    }
+
+    return itemCache;
+  }
+}
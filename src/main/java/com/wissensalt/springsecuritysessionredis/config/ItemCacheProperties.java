@@ -0,0 +1,16 @@
+package com.wissensalt.springsecuritysessionredis.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties("app.items.cache")
+public record ItemCacheProperties(
+    @DefaultValue("10000")
+    long maximumSize,
+    @DefaultValue("5m")
+    Duration timeToLive,
+    @DefaultValue("app:items:invalidations")
+    String channel) {
+
+}
@@ -0,0 +1,66 @@
+package com.wissensalt.springsecuritysessionredis.config;
+
+import com.wissensalt.springsecuritysessionredis.session.InMemoryIndexedSessionRepository;
+import com.wissensalt.springsecuritysessionredis.session.InstrumentedSessionRepository;
+import com.wissensalt.springsecuritysessionredis.session.SessionStore;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.session.SessionProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.security.core.session.SessionRegistry;
+import org.springframework.session.MapSession;
+import org.springframework.session.config.annotation.web.http.EnableSpringHttpSession;
+import org.springframework.session.security.SpringSessionBackedSessionRegistry;
+import org.springframework.session.web.http.HeaderHttpSessionIdResolver;
+import org.springframework.session.web.http.HttpSessionIdResolver;
+
+@Configuration
+@EnableSpringHttpSession
+@ConditionalOnSessionStore(SessionStore.MEMORY)
+public class MemorySessionConfig {
+
+  @Bean(destroyMethod = "close")
+  public InMemoryIndexedSessionRepository inMemoryIndexedSessionRepository(
+      MemorySessionProperties properties, ObjectProvider<SessionProperties> sessionProperties,
+      MeterRegistry meterRegistry) {
+    final InMemoryIndexedSessionRepository repository =
+        new InMemoryIndexedSessionRepository(properties.tick(), properties.wheelSize());
+    final SessionProperties session = sessionProperties.getIfAvailable();
+    final Duration timeout = session != null ? session.getTimeout() : null;
+    repository.setDefaultMaxInactiveInterval(
+        timeout != null ? timeout : MapSession.DEFAULT_MAX_INACTIVE_INTERVAL);
+    Gauge.builder("session.memory.active", repository, InMemoryIndexedSessionRepository::size)
+        .description("Sessions held by the in-memory session store")
+        .register(meterRegistry);
+
+    return repository;
+  }
+
+  @Primary
+  @Bean
+  public InstrumentedSessionRepository<MapSession> instrumentedSessionRepository(
+      InMemoryIndexedSessionRepository inMemoryIndexedSessionRepository,
+      MeterRegistry meterRegistry) {
+
+    return new InstrumentedSessionRepository<>(inMemoryIndexedSessionRepository, meterRegistry);
+  }
+
+  @Bean
+  public SessionRegistry sessionRegistry(
+      InMemoryIndexedSessionRepository inMemoryIndexedSessionRepository) {
+
+    return new SpringSessionBackedSessionRegistry<>(inMemoryIndexedSessionRepository);
+  }
+
+  @Bean
+  @Qualifier("httpSessionIdResolver")
+  public HttpSessionIdResolver httpSessionIdResolver() {
+
+    return HeaderHttpSessionIdResolver.xAuthToken();
+  }
+}
@@ -0,0 +1,19 @@
+package com.wissensalt.springsecuritysessionredis.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param tick resolution of session expiry
+ * @param wheelSize slots of the expiry timer wheel; sessions that expire later than
+ * {@code tick * wheelSize} from now are checked once per rotation until they are due
+ */
+@ConfigurationProperties("app.session.memory")
+public record MemorySessionProperties(
+    @DefaultValue("1s")
+    Duration tick,
+    @DefaultValue("512")
+    int wheelSize) {
+
+}
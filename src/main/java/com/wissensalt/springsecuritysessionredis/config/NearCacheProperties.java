@@ -0,0 +1,18 @@
+package com.wissensalt.springsecuritysessionredis.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties("app.session.near-cache")
+public record NearCacheProperties(
+    @DefaultValue("false")
+    boolean enabled,
+    @DefaultValue("10000")
+    long maximumSize,
+    @DefaultValue("30s")
+    Duration timeToLive,
+    @DefaultValue("spring:session:near-cache:invalidations")
+    String channel) {
+
+}
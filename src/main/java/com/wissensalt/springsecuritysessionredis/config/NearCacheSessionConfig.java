@@ -0,0 +1,31 @@
+package com.wissensalt.springsecuritysessionredis.config;
+
+import com.wissensalt.springsecuritysessionredis.session.SessionNearCache;
+import com.wissensalt.springsecuritysessionredis.session.SessionStore;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+@Configuration
+@ConditionalOnSessionStore(SessionStore.REDIS)
+@ConditionalOnProperty(prefix = "app.session.near-cache", name = "enabled", havingValue = "true")
+public class NearCacheSessionConfig {
+
+  @Bean
+  public SessionNearCache sessionNearCache(NearCacheProperties properties,
+      StringRedisTemplate stringRedisTemplate,
+      RedisMessageListenerContainer redisMessageListenerContainer) {
+    final SessionNearCache sessionNearCache = new SessionNearCache(
+        properties.maximumSize(),
+        properties.timeToLive(),
+        stringRedisTemplate,
+        properties.channel());
+    redisMessageListenerContainer.addMessageListener(sessionNearCache,
+        new ChannelTopic(properties.channel()));
+
+    return sessionNearCache;
+  }
+}
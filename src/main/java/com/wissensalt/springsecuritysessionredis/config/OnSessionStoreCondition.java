@@ -0,0 +1,28 @@
+package com.wissensalt.springsecuritysessionredis.config;
+
+import com.wissensalt.springsecuritysessionredis.session.SessionStore;
+import org.springframework.boot.autoconfigure.condition.ConditionOutcome;
+import org.springframework.boot.autoconfigure.condition.SpringBootCondition;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+
+class OnSessionStoreCondition extends SpringBootCondition {
+
+  static final String PROPERTY = "app.session.store";
+
+  @Override
+  public ConditionOutcome getMatchOutcome(ConditionContext context,
+      AnnotatedTypeMetadata metadata) {
+    final SessionStore required = (SessionStore) metadata
+        .getAnnotationAttributes(ConditionalOnSessionStore.class.getName())
+        .get("value");
+    final SessionStore configured = Binder.get(context.getEnvironment())
+        .bind(PROPERTY, SessionStore.class)
+        .orElse(SessionStore.REDIS);
+
+    return configured == required
+        ? ConditionOutcome.match(PROPERTY + " is " + configured)
+        : ConditionOutcome.noMatch(PROPERTY + " is " + configured + ", not " + required);
+  }
+}
@@ -0,0 +1,24 @@
+package com.wissensalt.springsecuritysessionredis.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param threads hashing threads, {@code 0} for one per available processor
+ * @param queueCapacity hashes allowed to wait for a thread before requests are rejected
+ * @param strength BCrypt cost factor for new hashes; stored hashes with a lower cost are upgraded
+ * on the next successful login
+ */
+@ConfigurationProperties("app.security.password-hashing")
+public record PasswordHashingProperties(
+    @DefaultValue("0")
+    int threads,
+    @DefaultValue("64")
+    int queueCapacity,
+    @DefaultValue("10")
+    int strength) {
+
+  public int effectiveThreads() {
+    return threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+  }
+}
@@ -0,0 +1,31 @@
+package com.wissensalt.springsecuritysessionredis.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Lettuce settings that {@code spring.data.redis.*} does not cover. Timeouts and the connection
+ * pool still come from {@code spring.data.redis.timeout} and {@code spring.data.redis.lettuce.pool}.
+ */
+@ConfigurationProperties("app.redis.client")
+public record RedisClientProperties(
+    @DefaultValue("true")
+    boolean shareNativeConnection,
+    @DefaultValue("each-command")
+    PipelineFlush pipelineFlush,
+    @DefaultValue("64")
+    int pipelineBufferSize,
+    @DefaultValue("0")
+    int ioThreads,
+    @DefaultValue("0")
+    int computationThreads,
+    @DefaultValue("true")
+    boolean keepAlive,
+    @DefaultValue("30s")
+    Duration keepAliveIdle) {
+
+  public enum PipelineFlush {
+    EACH_COMMAND, ON_CLOSE, BUFFERED
+  }
+}
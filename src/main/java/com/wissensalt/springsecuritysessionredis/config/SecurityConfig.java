@@ -1,90 +1,224 @@
 package com.wissensalt.springsecuritysessionredis.config;
 
+import com.wissensalt.springsecuritysessionredis.component.BoundedPasswordEncoder;
 import com.wissensalt.springsecuritysessionredis.component.CustomAuthenticationManager;
 import com.wissensalt.springsecuritysessionredis.component.CustomLogoutHandler;
+import com.wissensalt.springsecuritysessionredis.component.MemoizedSecurityContextRepository;
+import com.wissensalt.springsecuritysessionredis.component.MeteredConcurrentSessionControlAuthenticationStrategy;
+import com.wissensalt.springsecuritysessionredis.component.PrivilegeAuthorizationManager;
+import com.wissensalt.springsecuritysessionredis.component.PrivilegeRegistry;
+import com.wissensalt.springsecuritysessionredis.component.SecurityDebugFilter;
 import com.wissensalt.springsecuritysessionredis.model.Role.RoleName;
+import com.wissensalt.springsecuritysessionredis.repository.PrivilegeRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpSession;
+import java.util.List;
+import java.util.Map;
 import lombok.RequiredArgsConstructor;
+import org.springframework.aop.Advisor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.actuate.autoconfigure.web.server.ManagementPortType;
+import org.springframework.boot.actuate.autoconfigure.web.server.ManagementServerProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.env.Environment;
+import org.springframework.security.access.expression.method.DefaultMethodSecurityExpressionHandler;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.authorization.method.AuthorizationManagerBeforeMethodInterceptor;
+import org.springframework.security.authorization.method.PreAuthorizeAuthorizationManager;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.session.SessionRegistry;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
-import org.springframework.security.web.context.DelegatingSecurityContextRepository;
-import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
-import org.springframework.security.web.context.RequestAttributeSecurityContextRepository;
+import org.springframework.security.web.authentication.session.CompositeSessionAuthenticationStrategy;
+import org.springframework.security.web.authentication.session.RegisterSessionAuthenticationStrategy;
+import org.springframework.security.web.authentication.session.SessionAuthenticationStrategy;
+import org.springframework.security.web.context.SecurityContextRepository;
 import org.springframework.security.web.session.HttpSessionEventPublisher;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
 
 
 @RequiredArgsConstructor
 @Configuration
-@EnableWebSecurity(debug = true)
+@EnableWebSecurity
 @EnableMethodSecurity(
+    prePostEnabled = false,
     securedEnabled = true,
     jsr250Enabled = true,
     proxyTargetClass = true
 )
 public class SecurityConfig {
 
+  private static final int MAXIMUM_SESSIONS = 1;
+  private static final String BCRYPT = "bcrypt";
+
   private final CustomLogoutHandler customLogoutHandler;
+  private final SessionRegistry sessionRegistry;
 
   @Bean
-  public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+  public SecurityFilterChain securityFilterChain(HttpSecurity http,
+      SecurityContextRepository securityContextRepository, Environment environment,
+      ManagementServerProperties managementServerProperties) throws Exception {
 
     return http
         .securityContext(securityContext -> securityContext
-            .securityContextRepository(new DelegatingSecurityContextRepository(
-                new RequestAttributeSecurityContextRepository(),
-                new HttpSessionSecurityContextRepository())))
+            .securityContextRepository(securityContextRepository))
         .csrf(AbstractHttpConfigurer::disable)
         .authorizeHttpRequests(request ->
-            request.requestMatchers("/login").permitAll()
+            request.dispatcherTypeMatchers(DispatcherType.ERROR).permitAll()
+                .requestMatchers("/login").permitAll()
                 .requestMatchers("/register").permitAll()
-                .requestMatchers("/admin").hasAuthority(RoleName.ADMIN.getValue())
+                .requestMatchers("/actuator/health").permitAll()
+                .requestMatchers(internalPrometheus(environment, managementServerProperties))
+                .permitAll()
+                .requestMatchers("/actuator/**").hasAuthority(RoleName.ADMIN.getValue())
+                .requestMatchers("/admin", "/admin/**").hasAuthority(RoleName.ADMIN.getValue())
                 .requestMatchers("/user").authenticated()
                 .requestMatchers("**").authenticated())
         .sessionManagement(
             session -> session
                 .sessionCreationPolicy(SessionCreationPolicy.IF_REQUIRED)
-                .invalidSessionUrl("/logout?expired")
-                .maximumSessions(1)
-                .maxSessionsPreventsLogin(true))
+                .requireExplicitAuthenticationStrategy(true)
+                .maximumSessions(MAXIMUM_SESSIONS)
+                .maxSessionsPreventsLogin(true)
+                .sessionRegistry(sessionRegistry))
         .logout(logout -> logout
             .logoutUrl("/logout")
+            .addLogoutHandler((request, response, authentication) -> {
+              final HttpSession session = request.getSession(false);
+              if (session != null) {
+                sessionRegistry.removeSessionInformation(session.getId());
+              }
+            })
             .invalidateHttpSession(true)
             .logoutSuccessHandler(customLogoutHandler))
         .build();
   }
 
+  /**
+   * Matches {@code /actuator/prometheus} on a separate {@code management.server.port}, which is
+   * meant to listen on an internal interface only. On the application port it still needs an admin.
+   */
+  private static RequestMatcher internalPrometheus(Environment environment,
+      ManagementServerProperties managementServerProperties) {
+    final Integer port = managementServerProperties.getPort();
+    if (ManagementPortType.get(environment) != ManagementPortType.DIFFERENT
+        || port == null || port <= 0) {
+      return request -> false;
+    }
+    final RequestMatcher prometheus = AntPathRequestMatcher.antMatcher("/actuator/prometheus");
+
+    return request -> request.getLocalPort() == port && prometheus.matches(request);
+  }
+
+  @Bean
+  public PrivilegeRegistry privilegeRegistry(PrivilegeRepository privilegeRepository) {
+    return new PrivilegeRegistry(privilegeRepository.findAll());
+  }
+
+  /**
+   * Replaces the {@code @PreAuthorize} interceptor of {@link EnableMethodSecurity}, so privilege
+   * checks on the item endpoints are bit tests; everything else still goes through SpEL.
+   */
+  @Bean
+  @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+  static Advisor privilegeAuthorizationMethodInterceptor(
+      ObjectProvider<PrivilegeRegistry> privilegeRegistry, ApplicationContext applicationContext) {
+    final DefaultMethodSecurityExpressionHandler expressionHandler =
+        new DefaultMethodSecurityExpressionHandler();
+    expressionHandler.setApplicationContext(applicationContext);
+    final PreAuthorizeAuthorizationManager preAuthorizeAuthorizationManager =
+        new PreAuthorizeAuthorizationManager();
+    preAuthorizeAuthorizationManager.setExpressionHandler(expressionHandler);
+
+    return AuthorizationManagerBeforeMethodInterceptor.preAuthorize(
+        new PrivilegeAuthorizationManager(privilegeRegistry, preAuthorizeAuthorizationManager));
+  }
+
   @Bean
   public HttpSessionEventPublisher httpSessionEventPublisher() {
     return new HttpSessionEventPublisher();
   }
 
   @Bean
-  public HttpSessionSecurityContextRepository httpSessionSecurityContextRepository() {
-    return new HttpSessionSecurityContextRepository();
+  public SecurityContextRepository securityContextRepository(MeterRegistry meterRegistry) {
+    return new MemoizedSecurityContextRepository(meterRegistry);
   }
 
   @Bean
-  public PasswordEncoder passwordEncoder() {
-    return new BCryptPasswordEncoder();
+  public SessionAuthenticationStrategy sessionAuthenticationStrategy(MeterRegistry meterRegistry) {
+    final MeteredConcurrentSessionControlAuthenticationStrategy concurrentSessionControl =
+        new MeteredConcurrentSessionControlAuthenticationStrategy(sessionRegistry, meterRegistry);
+    concurrentSessionControl.setMaximumSessions(MAXIMUM_SESSIONS);
+    concurrentSessionControl.setExceptionIfMaximumExceeded(true);
+    if (concurrentSessionControl.registersSessions()) {
+      return concurrentSessionControl;
+    }
+
+    return new CompositeSessionAuthenticationStrategy(List.of(
+        concurrentSessionControl,
+        new RegisterSessionAuthenticationStrategy(sessionRegistry)));
+  }
+
+  @Bean
+  @ConditionalOnProperty(prefix = "app.security.debug", name = "enabled", havingValue = "true")
+  public FilterRegistrationBean<SecurityDebugFilter> securityDebugFilter(
+      List<SecurityFilterChain> securityFilterChains) {
+    final FilterRegistrationBean<SecurityDebugFilter> registration =
+        new FilterRegistrationBean<>(new SecurityDebugFilter(securityFilterChains));
+    registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 1);
+
+    return registration;
+  }
+
+  @Bean(destroyMethod = "close")
+  public BoundedPasswordEncoder passwordEncoder(
+      PasswordHashingProperties passwordHashingProperties, MeterRegistry meterRegistry) {
+    return new BoundedPasswordEncoder(
+        delegatingPasswordEncoder(passwordHashingProperties.strength()),
+        passwordHashingProperties.effectiveThreads(), passwordHashingProperties.queueCapacity(),
+        meterRegistry);
+  }
+
+  /**
+   * New hashes are written as {@code {bcrypt}...}; hashes stored before the id prefix was added
+   * are still matched as BCrypt and reported by {@code upgradeEncoding} so they get rewritten.
+   */
+  public static PasswordEncoder delegatingPasswordEncoder(int strength) {
+    final BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(strength);
+    final DelegatingPasswordEncoder delegatingPasswordEncoder =
+        new DelegatingPasswordEncoder(BCRYPT, Map.of(BCRYPT, bcrypt));
+    delegatingPasswordEncoder.setDefaultPasswordEncoderForMatches(bcrypt);
+
+    return delegatingPasswordEncoder;
   }
 
   @Bean
   public AuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder,
-      UserDetailsService userDetailsService) {
+      UserDetailsService userDetailsService,
+      UserDetailsPasswordService userDetailsPasswordService) {
     final DaoAuthenticationProvider daoAuthenticationProvider =
         new DaoAuthenticationProvider();
     daoAuthenticationProvider.setUserDetailsService(userDetailsService);
+    daoAuthenticationProvider.setUserDetailsPasswordService(userDetailsPasswordService);
     daoAuthenticationProvider.setPasswordEncoder(passwordEncoder);
 
     return daoAuthenticationProvider;
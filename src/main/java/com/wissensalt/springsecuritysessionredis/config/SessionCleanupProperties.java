@@ -0,0 +1,31 @@
+package com.wissensalt.springsecuritysessionredis.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param queueCapacity session ids waiting for deletion; further ids are dropped and left to the
+ * sweeper or to their key expiry
+ * @param batchSize session keys unlinked per pipeline
+ * @param flushInterval delay between two drains of the queue
+ * @param sweepInterval delay between two sweeps over all session keys, {@code 0} disables it
+ * @param sweepScanCount {@code COUNT} hint of each {@code SCAN} call of the sweeper
+ * @param sweepRate session keys inspected per second by the sweeper
+ */
+@ConfigurationProperties("app.session.cleanup")
+public record SessionCleanupProperties(
+    @DefaultValue("10000")
+    int queueCapacity,
+    @DefaultValue("100")
+    int batchSize,
+    @DefaultValue("200ms")
+    Duration flushInterval,
+    @DefaultValue("1h")
+    Duration sweepInterval,
+    @DefaultValue("100")
+    int sweepScanCount,
+    @DefaultValue("500")
+    int sweepRate) {
+
+}
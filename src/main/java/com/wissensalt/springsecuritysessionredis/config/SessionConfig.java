@@ -1,21 +1,57 @@
 package com.wissensalt.springsecuritysessionredis.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import io.lettuce.core.RedisURI;
+import com.wissensalt.springsecuritysessionredis.component.PrivilegeAuthenticationToken;
+import com.wissensalt.springsecuritysessionredis.component.PrivilegeAuthenticationTokenMixin;
+import com.wissensalt.springsecuritysessionredis.component.RedisCommandMetrics;
+import com.wissensalt.springsecuritysessionredis.session.CompactSessionSerializer;
+import com.wissensalt.springsecuritysessionredis.session.InstrumentedRedisSerializer;
+import com.wissensalt.springsecuritysessionredis.session.PrincipalSessionIndex;
+import com.wissensalt.springsecuritysessionredis.session.RedisSessionCleaner;
+import com.wissensalt.springsecuritysessionredis.session.RedisSessionRegistry;
+import com.wissensalt.springsecuritysessionredis.session.SessionStore;
+import io.lettuce.core.AbstractRedisClient;
+import io.lettuce.core.ClientOptions;
+import io.lettuce.core.ReadFrom;
+import io.lettuce.core.SocketOptions;
+import io.lettuce.core.SocketOptions.KeepAliveOptions;
+import io.lettuce.core.cluster.ClusterClientOptions;
+import io.lettuce.core.resource.ClientResources;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.time.Duration;
-import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.function.BiFunction;
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
 import org.springframework.beans.factory.BeanClassLoaderAware;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.data.redis.ClientResourcesBuilderCustomizer;
 import org.springframework.boot.autoconfigure.data.redis.RedisProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.connection.RedisClusterConfiguration;
+import org.springframework.data.redis.connection.RedisConfiguration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisNode;
+import org.springframework.data.redis.connection.RedisPassword;
+import org.springframework.data.redis.connection.RedisSentinelConfiguration;
 import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.RedisStaticMasterReplicaConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration.LettuceClientConfigurationBuilder;
+import org.springframework.data.redis.connection.lettuce.LettuceConnection.PipeliningFlushPolicy;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettucePoolingClientConfiguration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.security.core.session.SessionRegistry;
 import org.springframework.security.jackson2.SecurityJackson2Modules;
 import org.springframework.session.MapSession;
 import org.springframework.session.config.SessionRepositoryCustomizer;
@@ -27,33 +63,206 @@ import org.springframework.session.web.http.HttpSessionIdResolver;
 
 @Configuration
 @EnableRedisHttpSession
+@ConditionalOnSessionStore(SessionStore.REDIS)
 public class SessionConfig implements BeanClassLoaderAware {
 
+  private static final Duration DEFAULT_COMMAND_TIMEOUT = Duration.ofSeconds(2);
+
   private ClassLoader loader;
 
+  @Primary
+  @Bean
+  public LettuceConnectionFactory redisConnectionFactory(RedisProperties redisProperties,
+      RedisClientProperties redisClientProperties, ClientResources clientResources) {
+
+    return connectionFactory(redisConfiguration(redisProperties),
+        lettuceClientConfiguration(redisProperties, redisClientProperties, clientResources)
+            .build(),
+        redisClientProperties);
+  }
+
+  @Bean
+  @ConditionalOnProperty(prefix = "app.session.redis", name = "read-from")
+  public LettuceConnectionFactory sessionReadConnectionFactory(RedisProperties redisProperties,
+      SessionRedisProperties sessionRedisProperties, RedisClientProperties redisClientProperties,
+      ClientResources clientResources) {
+    RedisConfiguration redisConfiguration = redisConfiguration(redisProperties);
+    if (redisConfiguration instanceof RedisStandaloneConfiguration standalone
+        && !sessionRedisProperties.replicas().isEmpty()) {
+      final RedisStaticMasterReplicaConfiguration masterReplica =
+          new RedisStaticMasterReplicaConfiguration(standalone.getHostName(),
+              standalone.getPort());
+      masterReplica.setDatabase(standalone.getDatabase());
+      masterReplica.setUsername(standalone.getUsername());
+      masterReplica.setPassword(standalone.getPassword());
+      sessionRedisProperties.replicas().forEach(replica -> {
+        final RedisNode node = RedisNode.fromString(replica);
+        masterReplica.addNode(node.getHost(), node.getPort());
+      });
+      redisConfiguration = masterReplica;
+    }
+
+    return connectionFactory(redisConfiguration,
+        lettuceClientConfiguration(redisProperties, redisClientProperties, clientResources)
+            .readFrom(ReadFrom.valueOf(sessionRedisProperties.readFrom()))
+            .build(),
+        redisClientProperties);
+  }
+
   @Bean
-  public LettuceConnectionFactory redisConnectionFactory(RedisProperties redisProperties) {
-    final RedisStandaloneConfiguration redisStandaloneConfiguration = (RedisStandaloneConfiguration) LettuceConnectionFactory.createRedisConfiguration(
-        RedisURI.builder()
-            .withHost(redisProperties.getHost())
-            .withPort(redisProperties.getPort())
-            .build());
-
-    LettuceClientConfiguration lettuceClientConfiguration = LettuceClientConfiguration.builder()
-        .commandTimeout(Duration.of(1, ChronoUnit.MINUTES))
+  public ClientResourcesBuilderCustomizer lettuceThreadPoolCustomizer(
+      RedisClientProperties redisClientProperties) {
+    return builder -> {
+      if (redisClientProperties.ioThreads() > 0) {
+        builder.ioThreadPoolSize(redisClientProperties.ioThreads());
+      }
+      if (redisClientProperties.computationThreads() > 0) {
+        builder.computationThreadPoolSize(redisClientProperties.computationThreads());
+      }
+    };
+  }
+
+  /**
+   * Attaches {@link RedisCommandMetrics} to every Lettuce client once the factories have started
+   * and created their native clients.
+   */
+  @Bean
+  public SmartInitializingSingleton redisCommandMetricsRegistrar(
+      LettuceConnectionFactory redisConnectionFactory,
+      @Qualifier("sessionReadConnectionFactory")
+      ObjectProvider<LettuceConnectionFactory> sessionReadConnectionFactory,
+      MeterRegistry meterRegistry) {
+    return () -> {
+      addCommandListener(redisConnectionFactory, "primary", meterRegistry);
+      sessionReadConnectionFactory.ifAvailable(
+          factory -> addCommandListener(factory, "session-read", meterRegistry));
+    };
+  }
+
+  private static void addCommandListener(LettuceConnectionFactory factory, String client,
+      MeterRegistry meterRegistry) {
+    final AbstractRedisClient nativeClient = factory.getNativeClient();
+    if (nativeClient != null) {
+      nativeClient.addListener(new RedisCommandMetrics(meterRegistry, client));
+    }
+  }
+
+  private static LettuceConnectionFactory connectionFactory(RedisConfiguration redisConfiguration,
+      LettuceClientConfiguration clientConfiguration,
+      RedisClientProperties redisClientProperties) {
+    final LettuceConnectionFactory factory =
+        new LettuceConnectionFactory(redisConfiguration, clientConfiguration);
+    factory.setShareNativeConnection(redisClientProperties.shareNativeConnection());
+    factory.setPipeliningFlushPolicy(switch (redisClientProperties.pipelineFlush()) {
+      case EACH_COMMAND -> PipeliningFlushPolicy.flushEachCommand();
+      case ON_CLOSE -> PipeliningFlushPolicy.flushOnClose();
+      case BUFFERED -> PipeliningFlushPolicy.buffered(redisClientProperties.pipelineBufferSize());
+    });
+
+    return factory;
+  }
+
+  static RedisConfiguration redisConfiguration(RedisProperties redisProperties) {
+    final RedisProperties.Sentinel sentinel = redisProperties.getSentinel();
+    if (sentinel != null) {
+      final RedisSentinelConfiguration sentinelConfiguration = new RedisSentinelConfiguration(
+          sentinel.getMaster(), new LinkedHashSet<>(sentinel.getNodes()));
+      sentinelConfiguration.setDatabase(redisProperties.getDatabase());
+      sentinelConfiguration.setUsername(redisProperties.getUsername());
+      sentinelConfiguration.setPassword(RedisPassword.of(redisProperties.getPassword()));
+      sentinelConfiguration.setSentinelUsername(sentinel.getUsername());
+      sentinelConfiguration.setSentinelPassword(RedisPassword.of(sentinel.getPassword()));
+
+      return sentinelConfiguration;
+    }
+
+    final RedisProperties.Cluster cluster = redisProperties.getCluster();
+    if (cluster != null) {
+      final RedisClusterConfiguration clusterConfiguration =
+          new RedisClusterConfiguration(cluster.getNodes());
+      if (cluster.getMaxRedirects() != null) {
+        clusterConfiguration.setMaxRedirects(cluster.getMaxRedirects());
+      }
+      clusterConfiguration.setUsername(redisProperties.getUsername());
+      clusterConfiguration.setPassword(RedisPassword.of(redisProperties.getPassword()));
+
+      return clusterConfiguration;
+    }
+
+    final RedisStandaloneConfiguration standaloneConfiguration = new RedisStandaloneConfiguration(
+        redisProperties.getHost(), redisProperties.getPort());
+    standaloneConfiguration.setDatabase(redisProperties.getDatabase());
+    standaloneConfiguration.setUsername(redisProperties.getUsername());
+    standaloneConfiguration.setPassword(RedisPassword.of(redisProperties.getPassword()));
+
+    return standaloneConfiguration;
+  }
+
+  private static LettuceClientConfigurationBuilder lettuceClientConfiguration(
+      RedisProperties redisProperties, RedisClientProperties redisClientProperties,
+      ClientResources clientResources) {
+    final RedisProperties.Pool pool = redisProperties.getLettuce().getPool();
+    final LettuceClientConfigurationBuilder builder = Boolean.TRUE.equals(pool.getEnabled())
+        ? LettucePoolingClientConfiguration.builder().poolConfig(poolConfig(pool))
+        : LettuceClientConfiguration.builder();
+    final Duration timeout = redisProperties.getTimeout() != null
+        ? redisProperties.getTimeout()
+        : DEFAULT_COMMAND_TIMEOUT;
+    final SocketOptions socketOptions = SocketOptions.builder()
+        .connectTimeout(redisProperties.getConnectTimeout() != null
+            ? redisProperties.getConnectTimeout()
+            : timeout)
+        .keepAlive(KeepAliveOptions.builder()
+            .enable(redisClientProperties.keepAlive())
+            .idle(redisClientProperties.keepAliveIdle())
+            .build())
         .build();
+    final ClientOptions clientOptions = redisProperties.getCluster() != null
+        ? ClusterClientOptions.builder().socketOptions(socketOptions).build()
+        : ClientOptions.builder().socketOptions(socketOptions).build();
+
+    return builder
+        .clientResources(clientResources)
+        .clientOptions(clientOptions)
+        .commandTimeout(timeout);
+  }
+
+  private static <T> GenericObjectPoolConfig<T> poolConfig(RedisProperties.Pool pool) {
+    final GenericObjectPoolConfig<T> config = new GenericObjectPoolConfig<>();
+    config.setMaxTotal(pool.getMaxActive());
+    config.setMaxIdle(pool.getMaxIdle());
+    config.setMinIdle(pool.getMinIdle());
+    if (pool.getMaxWait() != null) {
+      config.setMaxWait(pool.getMaxWait());
+    }
+    if (pool.getTimeBetweenEvictionRuns() != null) {
+      config.setTimeBetweenEvictionRuns(pool.getTimeBetweenEvictionRuns());
+    }
+
+    return config;
+  }
 
-    return new LettuceConnectionFactory(redisStandaloneConfiguration, lettuceClientConfiguration);
+  @Bean
+  public RedisMessageListenerContainer redisMessageListenerContainer(
+      RedisConnectionFactory redisConnectionFactory) {
+    final RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+    container.setConnectionFactory(redisConnectionFactory);
+
+    return container;
   }
 
   @Bean
-  public RedisSerializer<Object> springSessionDefaultRedisSerializer() {
-    return new GenericJackson2JsonRedisSerializer(objectMapper());
+  public RedisSerializer<Object> springSessionDefaultRedisSerializer(
+      SessionSerializerProperties sessionSerializerProperties, MeterRegistry meterRegistry) {
+    return new InstrumentedRedisSerializer(new CompactSessionSerializer(
+        new GenericJackson2JsonRedisSerializer(objectMapper()),
+        sessionSerializerProperties.format()), meterRegistry);
   }
 
   private ObjectMapper objectMapper() {
     ObjectMapper mapper = new ObjectMapper();
     mapper.registerModules(SecurityJackson2Modules.getModules(this.loader));
+    mapper.addMixIn(PrivilegeAuthenticationToken.class, PrivilegeAuthenticationTokenMixin.class);
     return mapper;
   }
 
@@ -70,9 +279,45 @@ public class SessionConfig implements BeanClassLoaderAware {
   }
 
   @Bean
-  public SessionRepositoryCustomizer<RedisSessionRepository> redisSessionRepositoryCustomizer() {
+  public PrincipalSessionIndex principalSessionIndex(StringRedisTemplate stringRedisTemplate,
+      RedisSessionRepository redisSessionRepository,
+      @Qualifier("springSessionDefaultRedisSerializer")
+      RedisSerializer<Object> springSessionDefaultRedisSerializer,
+      RedisProperties redisProperties) {
+
+    return new PrincipalSessionIndex(stringRedisTemplate,
+        redisSessionRepository.getSessionRedisOperations(),
+        springSessionDefaultRedisSerializer,
+        RedisSessionRepository.DEFAULT_KEY_NAMESPACE,
+        redisProperties.getCluster() != null);
+  }
+
+  @Bean
+  public SessionRegistry sessionRegistry(PrincipalSessionIndex principalSessionIndex) {
+
+    return new RedisSessionRegistry(principalSessionIndex);
+  }
+
+  @Bean
+  public SessionRepositoryCustomizer<RedisSessionRepository> redisSessionRepositoryCustomizer(
+      MeterRegistry meterRegistry) {
     return redisSessionRepository -> redisSessionRepository
-        .setRedisSessionMapper(new SafeRedisSessionMapper(redisSessionRepository));
+        .setRedisSessionMapper(new SafeRedisSessionMapper(meterRegistry));
+  }
+
+  @Bean(destroyMethod = "close")
+  public RedisSessionCleaner redisSessionCleaner(StringRedisTemplate stringRedisTemplate,
+      SessionCleanupProperties sessionCleanupProperties, MeterRegistry meterRegistry) {
+
+    return new RedisSessionCleaner(stringRedisTemplate,
+        RedisSessionRepository.DEFAULT_KEY_NAMESPACE,
+        sessionCleanupProperties.queueCapacity(),
+        sessionCleanupProperties.batchSize(),
+        sessionCleanupProperties.flushInterval(),
+        sessionCleanupProperties.sweepInterval(),
+        sessionCleanupProperties.sweepScanCount(),
+        sessionCleanupProperties.sweepRate(),
+        meterRegistry);
   }
 
   static class SafeRedisSessionMapper implements
@@ -80,10 +325,12 @@ public class SessionConfig implements BeanClassLoaderAware {
 
     private final RedisSessionMapper delegate = new RedisSessionMapper();
 
-    private final RedisSessionRepository sessionRepository;
+    private final Counter failures;
 
-    SafeRedisSessionMapper(RedisSessionRepository sessionRepository) {
-      this.sessionRepository = sessionRepository;
+    SafeRedisSessionMapper(MeterRegistry meterRegistry) {
+      this.failures = Counter.builder("session.mapper.failures")
+          .description("Stored session hashes that could not be mapped")
+          .register(meterRegistry);
     }
 
     @Override
@@ -91,7 +338,7 @@ public class SessionConfig implements BeanClassLoaderAware {
       try {
         return this.delegate.apply(sessionId, map);
       } catch (IllegalStateException ex) {
-        this.sessionRepository.deleteById(sessionId);
+        this.failures.increment();
         return null;
       }
     }
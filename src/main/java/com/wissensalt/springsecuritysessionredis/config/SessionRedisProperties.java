@@ -0,0 +1,13 @@
+package com.wissensalt.springsecuritysessionredis.config;
+
+import java.util.List;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties("app.session.redis")
+public record SessionRedisProperties(
+    String readFrom,
+    @DefaultValue
+    List<String> replicas) {
+
+}
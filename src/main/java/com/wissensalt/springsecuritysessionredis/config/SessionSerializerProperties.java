@@ -0,0 +1,12 @@
+package com.wissensalt.springsecuritysessionredis.config;
+
+import com.wissensalt.springsecuritysessionredis.session.SessionSerializationFormat;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties("app.session.serializer")
+public record SessionSerializerProperties(
+    @DefaultValue("json")
+    SessionSerializationFormat format) {
+
+}
@@ -0,0 +1,14 @@
+package com.wissensalt.springsecuritysessionredis.config;
+
+import com.wissensalt.springsecuritysessionredis.session.SessionWriteMode;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties("app.session.write")
+public record SessionWriteProperties(
+    @DefaultValue("eager")
+    SessionWriteMode mode,
+    @DefaultValue("0.1")
+    double touchThreshold) {
+
+}
@@ -0,0 +1,47 @@
+package com.wissensalt.springsecuritysessionredis.config;
+
+import com.wissensalt.springsecuritysessionredis.component.FirstLoginFilter;
+import com.wissensalt.springsecuritysessionredis.component.StartupReport;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.session.SessionRepository;
+
+/**
+ * With {@code spring.main.lazy-initialization=true} only the beans a login needs are created
+ * before the application reports ready: the security filter chain, the session repository, the
+ * Redis connections and the JPA bootstrap, which also runs the Flyway migration. Controllers,
+ * caches and the admin services are created by the first request that uses them.
+ */
+@Configuration
+public class StartupConfig {
+
+  @Bean
+  static LazyInitializationExcludeFilter loginPathLazyInitializationExcludeFilter() {
+    return LazyInitializationExcludeFilter.forBeanTypes(SecurityFilterChain.class,
+        SessionRepository.class, RedisConnectionFactory.class, EntityManagerFactory.class,
+        StartupReport.class);
+  }
+
+  @Bean
+  public FilterRegistrationBean<FirstLoginFilter> firstLoginFilter(StartupReport startupReport) {
+    final FilterRegistrationBean<FirstLoginFilter> registration =
+        new FilterRegistrationBean<>(new FirstLoginFilter(startupReport));
+    registration.addUrlPatterns("/login");
+
+    return registration;
+  }
+
+  @Bean
+  public StartupReport startupReport(ConfigurableApplicationContext applicationContext,
+      StartupProperties startupProperties, MeterRegistry meterRegistry) {
+    return new StartupReport(applicationContext.getApplicationStartup(),
+        startupProperties.reportSteps(), meterRegistry);
+  }
+}
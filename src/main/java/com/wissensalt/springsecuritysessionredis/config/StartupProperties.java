@@ -0,0 +1,11 @@
+package com.wissensalt.springsecuritysessionredis.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties("app.startup")
+public record StartupProperties(
+    @DefaultValue("20")
+    int reportSteps) {
+
+}
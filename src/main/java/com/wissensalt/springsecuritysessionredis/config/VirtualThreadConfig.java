@@ -0,0 +1,39 @@
+package com.wissensalt.springsecuritysessionredis.config;
+
+import com.wissensalt.springsecuritysessionredis.component.ConcurrencyLimitFilter;
+import com.wissensalt.springsecuritysessionredis.component.VirtualThreadMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Active with {@code spring.threads.virtual.enabled=true}. Requests no longer queue for a Tomcat
+ * worker, so in-flight work is capped in front of the session filter instead and pinning of
+ * carrier threads is reported through JFR.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+  @Bean(destroyMethod = "close")
+  public VirtualThreadMetrics virtualThreadMetrics(VirtualThreadProperties properties) {
+    return new VirtualThreadMetrics(properties.pinnedThreshold());
+  }
+
+  @Bean
+  public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(
+      VirtualThreadProperties properties, MeterRegistry meterRegistry) {
+    final FilterRegistrationBean<ConcurrencyLimitFilter> registration =
+        new FilterRegistrationBean<>(new ConcurrencyLimitFilter(
+            properties.maxConcurrentRequests(),
+            properties.acquireTimeout(),
+            meterRegistry));
+    registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+
+    return registration;
+  }
+}
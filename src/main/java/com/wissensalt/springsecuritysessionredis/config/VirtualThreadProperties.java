@@ -0,0 +1,16 @@
+package com.wissensalt.springsecuritysessionredis.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties("app.threads.virtual")
+public record VirtualThreadProperties(
+    @DefaultValue("2000")
+    int maxConcurrentRequests,
+    @DefaultValue("100ms")
+    Duration acquireTimeout,
+    @DefaultValue("20ms")
+    Duration pinnedThreshold) {
+
+}
@@ -1,52 +1,103 @@
 package com.wissensalt.springsecuritysessionredis.controller;
 
 
-import com.wissensalt.springsecuritysessionredis.model.Item;
-import com.wissensalt.springsecuritysessionredis.repository.ItemRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.wissensalt.springsecuritysessionredis.request.BatchCreateItemRequest;
+import com.wissensalt.springsecuritysessionredis.request.BatchUpdateItemRequest;
 import com.wissensalt.springsecuritysessionredis.request.CreateItemRequest;
 import com.wissensalt.springsecuritysessionredis.request.UpdateItemRequest;
-import jakarta.persistence.EntityNotFoundException;
+import com.wissensalt.springsecuritysessionredis.response.ItemPageResponse;
+import com.wissensalt.springsecuritysessionredis.response.ItemResponse;
+import com.wissensalt.springsecuritysessionredis.service.ItemService;
 import jakarta.validation.Valid;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RequiredArgsConstructor
 @RestController
 public class ItemController {
 
-  private final ItemRepository itemRepository;
+  private static final int MAX_PAGE_SIZE = 1000;
+
+  private final ItemService itemService;
+  private final ObjectMapper objectMapper;
 
   @PreAuthorize("hasAnyAuthority('priv-read-item')")
   @GetMapping("/items")
-  public List<Item> getItems() {
+  public List<ItemResponse> getItems() {
+
+    return itemService.getItems();
+  }
 
-    return itemRepository.findAll();
+  @PreAuthorize("hasAnyAuthority('priv-read-item')")
+  @GetMapping("/items/{id}")
+  public ItemResponse getItem(@PathVariable("id") long id) {
+
+    return itemService.getItem(id);
+  }
+
+  @PreAuthorize("hasAnyAuthority('priv-read-item')")
+  @GetMapping("/items/page")
+  public ItemPageResponse getItemPage(
+      @RequestParam(name = "after", defaultValue = "0") long afterId,
+      @RequestParam(name = "size", defaultValue = "100") int size) {
+
+    return itemService.getItemPage(afterId, Math.max(1, Math.min(size, MAX_PAGE_SIZE)));
+  }
+
+  @PreAuthorize("hasAnyAuthority('priv-read-item')")
+  @GetMapping(value = "/items/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public ResponseEntity<StreamingResponseBody> streamItems() {
+    final StreamingResponseBody body = outputStream -> {
+      try (SequenceWriter writer = objectMapper.writer()
+          .withRootValueSeparator("\n")
+          .writeValues(outputStream)) {
+        itemService.writeItems(writer);
+      }
+    };
+
+    return ResponseEntity.ok()
+        .contentType(MediaType.APPLICATION_NDJSON)
+        .body(body);
   }
 
   @PreAuthorize("hasAuthority('priv-write-item')")
   @PostMapping("/items")
-  public Item createItem(@RequestBody @Valid CreateItemRequest request) {
-    final Item item = new Item();
-    item.setName(request.name());
-    item.setPrice(request.price());
+  public ItemResponse createItem(@RequestBody @Valid CreateItemRequest request) {
 
-    return itemRepository.save(item);
+    return itemService.createItem(request);
   }
 
   @PreAuthorize("hasAuthority('priv-write-item')")
   @PutMapping("/items")
-  public Item updateItem(@RequestBody @Valid UpdateItemRequest request) {
-    final Item item = itemRepository.findById(request.id()).orElseThrow(
-        () -> new EntityNotFoundException("Item with id " + request.id() + " Not found"));
-    item.setName(request.name());
-    item.setPrice(request.price());
+  public ItemResponse updateItem(@RequestBody @Valid UpdateItemRequest request) {
+
+    return itemService.updateItem(request);
+  }
+
+  @PreAuthorize("hasAuthority('priv-write-item')")
+  @PostMapping("/items/batch")
+  public List<ItemResponse> createItems(@RequestBody @Valid BatchCreateItemRequest request) {
+
+    return itemService.createItems(request.items());
+  }
+
+  @PreAuthorize("hasAuthority('priv-write-item')")
+  @PutMapping("/items/batch")
+  public List<ItemResponse> updateItems(@RequestBody @Valid BatchUpdateItemRequest request) {
 
-    return item;
+    return itemService.updateItems(request.items());
   }
 }
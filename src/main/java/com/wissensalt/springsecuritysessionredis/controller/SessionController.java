@@ -0,0 +1,30 @@
+package com.wissensalt.springsecuritysessionredis.controller;
+
+import com.wissensalt.springsecuritysessionredis.response.SessionResponse;
+import com.wissensalt.springsecuritysessionredis.response.SessionRevocationResponse;
+import com.wissensalt.springsecuritysessionredis.service.SessionService;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RequiredArgsConstructor
+@RestController
+public class SessionController {
+
+  private final SessionService sessionService;
+
+  @GetMapping("/admin/sessions")
+  public List<SessionResponse> getSessions(@RequestParam("email") String email) {
+
+    return sessionService.getSessions(email);
+  }
+
+  @DeleteMapping("/admin/sessions")
+  public SessionRevocationResponse revokeSessions(@RequestParam("email") String email) {
+
+    return sessionService.revokeSessions(email);
+  }
+}
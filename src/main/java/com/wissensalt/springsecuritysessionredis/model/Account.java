@@ -14,10 +14,10 @@ import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.Table;
 import jakarta.validation.constraints.Email;
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.List;
+import java.util.LinkedHashSet;
 import java.util.Objects;
+import java.util.Set;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
@@ -46,7 +46,7 @@ public class Account implements UserDetails {
   private String password;
 
   @ManyToMany(
-      fetch = FetchType.EAGER,
+      fetch = FetchType.LAZY,
       cascade = {
           CascadeType.DETACH,
           CascadeType.MERGE,
@@ -57,7 +57,7 @@ public class Account implements UserDetails {
       joinColumns = @JoinColumn(name = "account_id"),
       inverseJoinColumns = @JoinColumn(name = "role_id"))
   @Exclude
-  private List<Role> roles = new ArrayList<>();
+  private Set<Role> roles = new LinkedHashSet<>();
 
   @Override
   public Collection<? extends GrantedAuthority> getAuthorities() {
@@ -4,6 +4,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import java.math.BigDecimal;
 import java.util.Objects;
@@ -22,7 +23,8 @@ import org.hibernate.proxy.HibernateProxy;
 public class Item {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "item_seq")
+  @SequenceGenerator(name = "item_seq", sequenceName = "item_seq", allocationSize = 50)
   private Long id;
   private String name;
   private BigDecimal price;
@@ -13,8 +13,10 @@ import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.Table;
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
@@ -40,7 +42,7 @@ public class Role implements GrantedAuthority {
   private RoleName name;
 
   @ManyToMany(
-      fetch = FetchType.EAGER,
+      fetch = FetchType.LAZY,
       cascade = {
       CascadeType.DETACH,
       CascadeType.MERGE,
@@ -51,10 +53,10 @@ public class Role implements GrantedAuthority {
       joinColumns = @JoinColumn(name = "role_id"),
       inverseJoinColumns = @JoinColumn(name = "privilege_id"))
   @Exclude
-  private List<Privilege> privileges = new ArrayList<>();
+  private Set<Privilege> privileges = new LinkedHashSet<>();
 
   @ManyToMany(
-      fetch = FetchType.EAGER,
+      fetch = FetchType.LAZY,
       cascade = {
       CascadeType.DETACH,
       CascadeType.MERGE,
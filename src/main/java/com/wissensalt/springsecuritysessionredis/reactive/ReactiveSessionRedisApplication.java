@@ -0,0 +1,30 @@
+package com.wissensalt.springsecuritysessionredis.reactive;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.flyway.FlywayAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+
+/**
+ * Non-blocking deployment of the same API: WebFlux on Netty, sessions through
+ * {@code ReactiveRedisSessionRepository} and accounts and items through R2DBC. It shares the
+ * Redis session format and the Postgres schema with {@code SpringSecuritySessionRedisApplication},
+ * which stays the owner of the Flyway migrations.
+ */
+@SpringBootApplication(exclude = {
+    DataSourceAutoConfiguration.class,
+    HibernateJpaAutoConfiguration.class,
+    FlywayAutoConfiguration.class})
+public class ReactiveSessionRedisApplication {
+
+  public static final String PROFILE = "reactive";
+
+  public static void main(String[] args) {
+    new SpringApplicationBuilder(ReactiveSessionRedisApplication.class)
+        .web(WebApplicationType.REACTIVE)
+        .profiles(PROFILE)
+        .run(args);
+  }
+}
@@ -0,0 +1,65 @@
+package com.wissensalt.springsecuritysessionredis.reactive.component;
+
+import com.wissensalt.springsecuritysessionredis.reactive.repository.ReactiveAccountRepository;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Reactive counterpart of {@code CustomAuthenticationManager}. The password check is CPU bound,
+ * so it runs on {@link Schedulers#boundedElastic()} to keep it off the Netty event loop.
+ */
+@RequiredArgsConstructor
+@Component
+public class ReactiveCustomAuthenticationManager implements ReactiveAuthenticationManager {
+
+  private final ReactiveAccountRepository accountRepository;
+  private final PasswordEncoder passwordEncoder;
+  private volatile String userNotFoundPassword;
+
+  @Override
+  public Mono<Authentication> authenticate(Authentication authentication) {
+    final String principal = authentication.getName();
+    if (authentication.getCredentials() == null) {
+      return Mono.error(new BadCredentialsException("Bad Credentials"));
+    }
+    final String credentials = authentication.getCredentials().toString();
+
+    // publishOn also moves the empty completion, so the dummy check runs on boundedElastic too
+    return accountRepository.findWithAuthoritiesByEmail(principal)
+        .publishOn(Schedulers.boundedElastic())
+        .switchIfEmpty(Mono.defer(() -> {
+          mitigateAgainstTimingAttack(credentials);
+          return Mono.error(new BadCredentialsException("Bad Credentials"));
+        }))
+        .filter(account -> passwordEncoder.matches(credentials, account.password()))
+        .switchIfEmpty(Mono.error(() -> new BadCredentialsException("Bad Credentials")))
+        .map(account -> {
+          final List<GrantedAuthority> authorities = account.authorities().stream()
+              .<GrantedAuthority>map(SimpleGrantedAuthority::new)
+              .toList();
+
+          return UsernamePasswordAuthenticationToken.authenticated(principal, null, authorities);
+        });
+  }
+
+  /**
+   * Spends the same hashing work as a wrong password, so unknown emails cannot be told apart by
+   * response time.
+   */
+  private void mitigateAgainstTimingAttack(String rawPassword) {
+    if (userNotFoundPassword == null) {
+      userNotFoundPassword = passwordEncoder.encode("userNotFoundPassword");
+    }
+    passwordEncoder.matches(rawPassword, userNotFoundPassword);
+  }
+}
@@ -0,0 +1,67 @@
+package com.wissensalt.springsecuritysessionredis.reactive.config;
+
+import com.wissensalt.springsecuritysessionredis.config.PasswordHashingProperties;
+import com.wissensalt.springsecuritysessionredis.config.SecurityConfig;
+import com.wissensalt.springsecuritysessionredis.model.Role.RoleName;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.config.annotation.method.configuration.EnableReactiveMethodSecurity;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.authentication.HttpStatusServerEntryPoint;
+import org.springframework.security.web.server.authentication.logout.DelegatingServerLogoutHandler;
+import org.springframework.security.web.server.authentication.logout.HttpStatusReturningServerLogoutSuccessHandler;
+import org.springframework.security.web.server.authentication.logout.SecurityContextServerLogoutHandler;
+import org.springframework.security.web.server.authentication.logout.WebSessionServerLogoutHandler;
+import org.springframework.security.web.server.context.ServerSecurityContextRepository;
+import org.springframework.security.web.server.context.WebSessionServerSecurityContextRepository;
+import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatchers;
+
+@Configuration
+@EnableWebFluxSecurity
+@EnableReactiveMethodSecurity
+@EnableConfigurationProperties(PasswordHashingProperties.class)
+public class ReactiveSecurityConfig {
+
+  @Bean
+  public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http,
+      ServerSecurityContextRepository securityContextRepository) {
+
+    return http
+        .securityContextRepository(securityContextRepository)
+        .csrf(ServerHttpSecurity.CsrfSpec::disable)
+        .httpBasic(ServerHttpSecurity.HttpBasicSpec::disable)
+        .formLogin(ServerHttpSecurity.FormLoginSpec::disable)
+        .authorizeExchange(exchange ->
+            exchange.pathMatchers("/login").permitAll()
+                .pathMatchers("/register").permitAll()
+                .pathMatchers("/actuator/health").permitAll()
+                .pathMatchers("/actuator/**").hasAuthority(RoleName.ADMIN.getValue())
+                .pathMatchers("/admin").hasAuthority(RoleName.ADMIN.getValue())
+                .pathMatchers("/user").authenticated()
+                .anyExchange().authenticated())
+        .exceptionHandling(exceptionHandling -> exceptionHandling
+            .authenticationEntryPoint(new HttpStatusServerEntryPoint(HttpStatus.UNAUTHORIZED)))
+        .logout(logout -> logout
+            .requiresLogout(ServerWebExchangeMatchers.pathMatchers("/logout"))
+            .logoutHandler(new DelegatingServerLogoutHandler(
+                new SecurityContextServerLogoutHandler(),
+                new WebSessionServerLogoutHandler()))
+            .logoutSuccessHandler(new HttpStatusReturningServerLogoutSuccessHandler(HttpStatus.OK)))
+        .build();
+  }
+
+  @Bean
+  public ServerSecurityContextRepository serverSecurityContextRepository() {
+    return new WebSessionServerSecurityContextRepository();
+  }
+
+  @Bean
+  public PasswordEncoder passwordEncoder(PasswordHashingProperties passwordHashingProperties) {
+    return SecurityConfig.delegatingPasswordEncoder(passwordHashingProperties.strength());
+  }
+}
@@ -0,0 +1,57 @@
+package com.wissensalt.springsecuritysessionredis.reactive.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wissensalt.springsecuritysessionredis.component.PrivilegeAuthenticationToken;
+import com.wissensalt.springsecuritysessionredis.component.PrivilegeAuthenticationTokenMixin;
+import com.wissensalt.springsecuritysessionredis.config.SessionSerializerProperties;
+import com.wissensalt.springsecuritysessionredis.session.CompactSessionSerializer;
+import org.springframework.beans.factory.BeanClassLoaderAware;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.security.jackson2.SecurityJackson2Modules;
+import org.springframework.session.data.redis.config.annotation.web.server.EnableRedisWebSession;
+import org.springframework.web.server.session.HeaderWebSessionIdResolver;
+import org.springframework.web.server.session.WebSessionIdResolver;
+
+@Configuration
+@EnableRedisWebSession
+@EnableConfigurationProperties(SessionSerializerProperties.class)
+public class ReactiveSessionConfig implements BeanClassLoaderAware {
+
+  private static final String SESSION_HEADER = "X-Auth-Token";
+
+  private ClassLoader loader;
+
+  @Bean
+  public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+    return new NettyReactiveWebServerFactory();
+  }
+
+  @Bean
+  public RedisSerializer<Object> springSessionDefaultRedisSerializer(
+      SessionSerializerProperties sessionSerializerProperties) {
+    final ObjectMapper mapper = new ObjectMapper();
+    mapper.registerModules(SecurityJackson2Modules.getModules(this.loader));
+    mapper.addMixIn(PrivilegeAuthenticationToken.class, PrivilegeAuthenticationTokenMixin.class);
+
+    return new CompactSessionSerializer(new GenericJackson2JsonRedisSerializer(mapper),
+        sessionSerializerProperties.format());
+  }
+
+  @Bean
+  public WebSessionIdResolver webSessionIdResolver() {
+    final HeaderWebSessionIdResolver resolver = new HeaderWebSessionIdResolver();
+    resolver.setHeaderName(SESSION_HEADER);
+
+    return resolver;
+  }
+
+  @Override
+  public void setBeanClassLoader(ClassLoader classLoader) {
+    this.loader = classLoader;
+  }
+}
@@ -0,0 +1,47 @@
+package com.wissensalt.springsecuritysessionredis.reactive.controller;
+
+import com.wissensalt.springsecuritysessionredis.reactive.service.ReactiveAccountService;
+import com.wissensalt.springsecuritysessionredis.request.LoginRequest;
+import com.wissensalt.springsecuritysessionredis.request.RegisterRequest;
+import com.wissensalt.springsecuritysessionredis.response.AccountResponse;
+import jakarta.validation.Valid;
+import java.security.Principal;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+@RequiredArgsConstructor
+@RestController
+public class ReactiveAuthenticationController {
+
+  private final ReactiveAccountService accountService;
+
+  @PostMapping("/register")
+  public Mono<Boolean> register(@RequestBody @Valid RegisterRequest request) {
+
+    return accountService.register(request);
+  }
+
+  @PostMapping("/login")
+  public Mono<AccountResponse> login(ServerWebExchange exchange,
+      @RequestBody @Valid LoginRequest loginRequest) {
+
+    return accountService.login(exchange, loginRequest);
+  }
+
+  @GetMapping("/user")
+  public Mono<String> userApi(Mono<Principal> principal) {
+
+    return principal.map(user -> "Welcome User " + user.getName());
+  }
+
+  @GetMapping("/admin")
+  public Mono<String> adminApi(Mono<Principal> principal) {
+
+    return principal.map(user -> "Welcome Admin " + user.getName());
+  }
+}
@@ -0,0 +1,75 @@
+package com.wissensalt.springsecuritysessionredis.reactive.controller;
+
+import com.wissensalt.springsecuritysessionredis.reactive.model.ReactiveItem;
+import com.wissensalt.springsecuritysessionredis.reactive.repository.ReactiveItemRepository;
+import com.wissensalt.springsecuritysessionredis.request.CreateItemRequest;
+import com.wissensalt.springsecuritysessionredis.request.UpdateItemRequest;
+import com.wissensalt.springsecuritysessionredis.response.ItemPageResponse;
+import com.wissensalt.springsecuritysessionredis.response.ItemResponse;
+import jakarta.validation.Valid;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@RequiredArgsConstructor
+@RestController
+public class ReactiveItemController {
+
+  private static final int MAX_PAGE_SIZE = 1000;
+
+  private final ReactiveItemRepository itemRepository;
+
+  @PreAuthorize("hasAnyAuthority('priv-read-item')")
+  @GetMapping(value = "/items",
+      produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+  public Flux<ReactiveItem> getItems() {
+
+    return itemRepository.findAll();
+  }
+
+  @PreAuthorize("hasAnyAuthority('priv-read-item')")
+  @GetMapping("/items/page")
+  public Mono<ItemPageResponse> getItemPage(
+      @RequestParam(name = "after", defaultValue = "0") long afterId,
+      @RequestParam(name = "size", defaultValue = "100") int size) {
+    final int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+
+    return itemRepository.findPageAfter(afterId, pageSize)
+        .map(item -> new ItemResponse(item.id(), item.name(), item.price()))
+        .collectList()
+        .map(items -> new ItemPageResponse(items, nextCursor(items, pageSize)));
+  }
+
+  @PreAuthorize("hasAuthority('priv-write-item')")
+  @PostMapping("/items")
+  public Mono<ReactiveItem> createItem(@RequestBody @Valid CreateItemRequest request) {
+
+    return itemRepository.insert(request.name(), request.price());
+  }
+
+  @PreAuthorize("hasAuthority('priv-write-item')")
+  @PutMapping("/items")
+  public Mono<ReactiveItem> updateItem(@RequestBody @Valid UpdateItemRequest request) {
+
+    return itemRepository.findById(request.id())
+        .switchIfEmpty(Mono.error(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
+            "Item with id " + request.id() + " Not found")))
+        .flatMap(item -> itemRepository.save(
+            new ReactiveItem(item.id(), request.name(), request.price())));
+  }
+
+  private static Long nextCursor(List<ItemResponse> items, int pageSize) {
+    return items.size() < pageSize ? null : items.get(items.size() - 1).id();
+  }
+}
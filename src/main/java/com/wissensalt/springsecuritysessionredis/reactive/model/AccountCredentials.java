@@ -0,0 +1,11 @@
+package com.wissensalt.springsecuritysessionredis.reactive.model;
+
+import java.util.Set;
+
+public record AccountCredentials(
+    Long id,
+    String email,
+    String password,
+    Set<String> authorities) {
+
+}
@@ -0,0 +1,14 @@
+package com.wissensalt.springsecuritysessionredis.reactive.model;
+
+import java.math.BigDecimal;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+@Table("item")
+public record ReactiveItem(
+    @Id
+    Long id,
+    String name,
+    BigDecimal price) {
+
+}
@@ -0,0 +1,82 @@
+package com.wissensalt.springsecuritysessionredis.reactive.repository;
+
+import com.wissensalt.springsecuritysessionredis.reactive.model.AccountCredentials;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+@RequiredArgsConstructor
+@Repository
+public class ReactiveAccountRepository {
+
+  private static final String FIND_WITH_AUTHORITIES_BY_EMAIL = """
+      SELECT a.id, a.email, a.password, r.name AS role_name, p.name AS privilege_name
+      FROM account a
+      LEFT JOIN link_account_role lar ON lar.account_id = a.id
+      LEFT JOIN role r ON r.id = lar.role_id
+      LEFT JOIN link_role_privilege lrp ON lrp.role_id = r.id
+      LEFT JOIN privilege p ON p.id = lrp.privilege_id
+      WHERE a.email = :email
+      """;
+
+  private static final String INSERT_ACCOUNT = """
+      INSERT INTO account(email, password)
+      VALUES (:email, :password)
+      RETURNING id
+      """;
+
+  private static final String INSERT_ACCOUNT_ROLE = """
+      INSERT INTO link_account_role(account_id, role_id)
+      SELECT :accountId, id FROM role WHERE name = :roleName
+      """;
+
+  private final DatabaseClient databaseClient;
+
+  public Mono<AccountCredentials> findWithAuthoritiesByEmail(String email) {
+    return databaseClient.sql(FIND_WITH_AUTHORITIES_BY_EMAIL)
+        .bind("email", email)
+        .fetch()
+        .all()
+        .collectList()
+        .filter(rows -> !rows.isEmpty())
+        .map(rows -> {
+          final Set<String> authorities = new LinkedHashSet<>();
+          rows.forEach(row -> {
+            addIfPresent(authorities, row.get("role_name"));
+            addIfPresent(authorities, row.get("privilege_name"));
+          });
+          final var first = rows.get(0);
+
+          return new AccountCredentials(
+              ((Number) first.get("id")).longValue(),
+              (String) first.get("email"),
+              (String) first.get("password"),
+              Set.copyOf(authorities));
+        });
+  }
+
+  public Mono<Long> insert(String email, String encodedPassword) {
+    return databaseClient.sql(INSERT_ACCOUNT)
+        .bind("email", email)
+        .bind("password", encodedPassword)
+        .map(row -> row.get("id", Long.class))
+        .one();
+  }
+
+  public Mono<Long> addRole(long accountId, String roleName) {
+    return databaseClient.sql(INSERT_ACCOUNT_ROLE)
+        .bind("accountId", accountId)
+        .bind("roleName", roleName)
+        .fetch()
+        .rowsUpdated();
+  }
+
+  private static void addIfPresent(Set<String> authorities, Object name) {
+    if (name != null) {
+      authorities.add((String) name);
+    }
+  }
+}
@@ -0,0 +1,28 @@
+package com.wissensalt.springsecuritysessionredis.reactive.repository;
+
+import com.wissensalt.springsecuritysessionredis.reactive.model.ReactiveItem;
+import java.math.BigDecimal;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveItemRepository extends ReactiveCrudRepository<ReactiveItem, Long> {
+
+  @Query("""
+      SELECT id, name, price
+      FROM item
+      WHERE id > :afterId
+      ORDER BY id
+      LIMIT :size
+      """)
+  Flux<ReactiveItem> findPageAfter(@Param("afterId") long afterId, @Param("size") int size);
+
+  @Query("""
+      INSERT INTO item(id, name, price)
+      VALUES (nextval('item_seq'), :name, :price)
+      RETURNING id, name, price
+      """)
+  Mono<ReactiveItem> insert(@Param("name") String name, @Param("price") BigDecimal price);
+}
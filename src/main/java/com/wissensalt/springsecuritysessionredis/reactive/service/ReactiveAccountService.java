@@ -0,0 +1,14 @@
+package com.wissensalt.springsecuritysessionredis.reactive.service;
+
+import com.wissensalt.springsecuritysessionredis.request.LoginRequest;
+import com.wissensalt.springsecuritysessionredis.request.RegisterRequest;
+import com.wissensalt.springsecuritysessionredis.response.AccountResponse;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveAccountService {
+
+  Mono<Boolean> register(RegisterRequest request);
+
+  Mono<AccountResponse> login(ServerWebExchange exchange, LoginRequest request);
+}
@@ -0,0 +1,54 @@
+package com.wissensalt.springsecuritysessionredis.reactive.service;
+
+import com.wissensalt.springsecuritysessionredis.reactive.repository.ReactiveAccountRepository;
+import com.wissensalt.springsecuritysessionredis.request.LoginRequest;
+import com.wissensalt.springsecuritysessionredis.request.RegisterRequest;
+import com.wissensalt.springsecuritysessionredis.response.AccountResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.server.context.ServerSecurityContextRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+@RequiredArgsConstructor
+@Service
+public class ReactiveAccountServiceImpl implements ReactiveAccountService {
+
+  private final ReactiveAccountRepository accountRepository;
+  private final PasswordEncoder passwordEncoder;
+  private final ReactiveAuthenticationManager authenticationManager;
+  private final ServerSecurityContextRepository securityContextRepository;
+
+  @Transactional
+  @Override
+  public Mono<Boolean> register(RegisterRequest request) {
+    return Mono.fromCallable(() -> passwordEncoder.encode(request.password()))
+        .subscribeOn(Schedulers.boundedElastic())
+        .flatMap(encodedPassword -> accountRepository.insert(request.email(), encodedPassword))
+        .flatMap(accountId -> accountRepository.addRole(accountId, request.role().getValue()))
+        .flatMap(rowsUpdated -> rowsUpdated == 0
+            ? Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND,
+            "Role " + request.role().getValue() + " Not found"))
+            : Mono.just(true));
+  }
+
+  @Override
+  public Mono<AccountResponse> login(ServerWebExchange exchange, LoginRequest request) {
+    return authenticationManager.authenticate(
+            UsernamePasswordAuthenticationToken.unauthenticated(request.email(),
+                request.password()))
+        .flatMap(authentication -> exchange.getSession()
+            .flatMap(session -> session.changeSessionId()
+                .then(securityContextRepository.save(exchange,
+                    new SecurityContextImpl(authentication)))
+                .thenReturn(new AccountResponse(session.getId()))));
+  }
+}
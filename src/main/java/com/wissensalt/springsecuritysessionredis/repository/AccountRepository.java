@@ -1,10 +1,33 @@
 package com.wissensalt.springsecuritysessionredis.repository;
 
 import com.wissensalt.springsecuritysessionredis.model.Account;
+import jakarta.persistence.QueryHint;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
 public interface AccountRepository extends JpaRepository<Account, Long> {
 
-  Optional<Account> findFirstByEmail(String email);
+  @EntityGraph(attributePaths = {"roles", "roles.privileges"})
+  Optional<Account> findWithAuthoritiesByEmail(String email);
+
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+  @Query("select a.email from Account a")
+  Stream<String> streamAllEmails();
+
+  @Query("select coalesce(max(a.id), 0) from Account a")
+  long findMaxId();
+
+  @Query("select a.email from Account a where a.id > :fromId and a.id <= :toId")
+  List<String> findEmailsByIdBetween(long fromId, long toId);
+
+  @Modifying(clearAutomatically = true)
+  @Query("update Account a set a.password = :password where a.email = :email")
+  int updatePasswordByEmail(String email, String password);
 }
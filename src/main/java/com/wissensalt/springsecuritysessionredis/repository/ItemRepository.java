@@ -1,8 +1,44 @@
 package com.wissensalt.springsecuritysessionredis.repository;
 
 import com.wissensalt.springsecuritysessionredis.model.Item;
+import com.wissensalt.springsecuritysessionredis.response.ItemResponse;
+import jakarta.persistence.QueryHint;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
 
+  @Transactional(readOnly = true)
+  @Query("SELECT new com.wissensalt.springsecuritysessionredis.response.ItemResponse("
+      + "i.id, i.name, i.price) FROM Item i WHERE i.id = :id")
+  Optional<ItemResponse> findResponseById(@Param("id") long id);
+
+  @Transactional(readOnly = true)
+  @Query("SELECT new com.wissensalt.springsecuritysessionredis.response.ItemResponse("
+      + "i.id, i.name, i.price) FROM Item i ORDER BY i.id")
+  List<ItemResponse> findAllResponses();
+
+  @Query("SELECT new com.wissensalt.springsecuritysessionredis.response.ItemResponse("
+      + "i.id, i.name, i.price) FROM Item i WHERE i.id > :afterId ORDER BY i.id")
+  List<ItemResponse> findPageAfter(@Param("afterId") long afterId, Pageable pageable);
+
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+  @Query("SELECT new com.wissensalt.springsecuritysessionredis.response.ItemResponse("
+      + "i.id, i.name, i.price) FROM Item i ORDER BY i.id")
+  Stream<ItemResponse> streamAll();
+
+  @Modifying(clearAutomatically = true)
+  @Query("UPDATE Item i SET i.name = :name, i.price = :price WHERE i.id = :id")
+  int updateNameAndPrice(@Param("id") long id, @Param("name") String name,
+      @Param("price") BigDecimal price);
 }
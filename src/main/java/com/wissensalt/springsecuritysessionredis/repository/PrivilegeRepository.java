@@ -0,0 +1,8 @@
+package com.wissensalt.springsecuritysessionredis.repository;
+
+import com.wissensalt.springsecuritysessionredis.model.Privilege;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface PrivilegeRepository extends JpaRepository<Privilege, Long> {
+
+}
@@ -0,0 +1,13 @@
+package com.wissensalt.springsecuritysessionredis.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+public record BatchUpdateItemRequest(
+    @NotEmpty
+    @Size(max = 10000)
+    List<@Valid UpdateItemRequest> items) {
+
+}
@@ -0,0 +1,10 @@
+package com.wissensalt.springsecuritysessionredis.response;
+
+import java.util.List;
+
+public record ItemPageResponse(
+    List<ItemResponse> items,
+    Long nextCursor
+) {
+
+}
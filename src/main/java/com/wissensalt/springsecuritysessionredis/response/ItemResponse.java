@@ -0,0 +1,11 @@
+package com.wissensalt.springsecuritysessionredis.response;
+
+import java.math.BigDecimal;
+
+public record ItemResponse(
+    Long id,
+    String name,
+    BigDecimal price
+) {
+
+}
@@ -0,0 +1,12 @@
+package com.wissensalt.springsecuritysessionredis.response;
+
+import java.time.Instant;
+
+public record SessionResponse(
+    String sessionId,
+    Instant creationTime,
+    Instant lastAccessedTime,
+    Instant expiresAt
+) {
+
+}
@@ -0,0 +1,7 @@
+package com.wissensalt.springsecuritysessionredis.response;
+
+public record SessionRevocationResponse(
+    int revoked
+) {
+
+}
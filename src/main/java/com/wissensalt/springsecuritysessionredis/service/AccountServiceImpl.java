@@ -1,5 +1,6 @@
 package com.wissensalt.springsecuritysessionredis.service;
 
+import com.wissensalt.springsecuritysessionredis.component.AccountEmailFilter;
 import com.wissensalt.springsecuritysessionredis.param.LoginParam;
 import com.wissensalt.springsecuritysessionredis.request.LoginRequest;
 import com.wissensalt.springsecuritysessionredis.request.RegisterRequest;
@@ -11,6 +12,7 @@ import com.wissensalt.springsecuritysessionredis.response.AccountResponse;
 import java.util.Optional;
 import lombok.RequiredArgsConstructor;
 import org.hibernate.ObjectNotFoundException;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -18,9 +20,11 @@ import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.context.SecurityContextHolderStrategy;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.authentication.session.SessionAuthenticationStrategy;
 import org.springframework.security.web.context.SecurityContextRepository;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @RequiredArgsConstructor
 @Service
@@ -31,26 +35,35 @@ public class AccountServiceImpl implements AccountService {
   private final PasswordEncoder passwordEncoder;
   private final AuthenticationManager authenticationManager;
   private final SecurityContextRepository securityContextRepository;
+  private final SessionAuthenticationStrategy sessionAuthenticationStrategy;
+  private final ObjectProvider<AccountEmailFilter> accountEmailFilter;
+  private final PlatformTransactionManager transactionManager;
 
-
-  @Transactional
+  /**
+   * Hashes the password before the transaction starts, so no database connection is held while
+   * the hash waits for the password hashing pool.
+   */
   @Override
   public Boolean register(RegisterRequest request) {
-    final Optional<Role> roleOptional = roleRepository.findFirstByName(request.role());
-    if (roleOptional.isEmpty()) {
-      throw new ObjectNotFoundException(roleOptional, request.role().getValue());
-    }
+    final String encodedPassword = passwordEncoder.encode(request.password());
+
+    return new TransactionTemplate(transactionManager).execute(status -> {
+      final Optional<Role> roleOptional = roleRepository.findFirstByName(request.role());
+      if (roleOptional.isEmpty()) {
+        throw new ObjectNotFoundException(roleOptional, request.role().getValue());
+      }
 
-    final Account account = new Account();
-    account.setEmail(request.email());
-    account.setPassword(passwordEncoder.encode(request.password()));
-    account.getRoles().add(roleOptional.get());
-    accountRepository.save(account);
+      final Account account = new Account();
+      account.setEmail(request.email());
+      account.setPassword(encodedPassword);
+      account.getRoles().add(roleOptional.get());
+      accountRepository.save(account);
+      accountEmailFilter.ifAvailable(filter -> filter.add(account.getEmail()));
 
-    return true;
+      return true;
+    });
   }
 
-  @Transactional(readOnly = true)
   @Override
   public AccountResponse login(LoginParam loginParam) {
     final LoginRequest request = loginParam.loginRequest();
@@ -58,6 +71,8 @@ public class AccountServiceImpl implements AccountService {
         new UsernamePasswordAuthenticationToken(request.email(), request.password());
     final Authentication authentication =
         authenticationManager.authenticate(usernamePasswordAuthenticationToken);
+    sessionAuthenticationStrategy.onAuthentication(authentication, loginParam.request(),
+        loginParam.response());
     SecurityContextHolderStrategy securityContextHolderStrategy = SecurityContextHolder
         .getContextHolderStrategy();
     SecurityContext context = securityContextHolderStrategy.createEmptyContext();
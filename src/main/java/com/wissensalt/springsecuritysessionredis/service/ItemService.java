@@ -0,0 +1,28 @@
+package com.wissensalt.springsecuritysessionredis.service;
+
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.wissensalt.springsecuritysessionredis.request.CreateItemRequest;
+import com.wissensalt.springsecuritysessionredis.request.UpdateItemRequest;
+import com.wissensalt.springsecuritysessionredis.response.ItemPageResponse;
+import com.wissensalt.springsecuritysessionredis.response.ItemResponse;
+import java.io.IOException;
+import java.util.List;
+
+public interface ItemService {
+
+  List<ItemResponse> getItems();
+
+  ItemResponse getItem(long id);
+
+  ItemResponse createItem(CreateItemRequest request);
+
+  ItemResponse updateItem(UpdateItemRequest request);
+
+  ItemPageResponse getItemPage(long afterId, int size);
+
+  void writeItems(SequenceWriter writer) throws IOException;
+
+  List<ItemResponse> createItems(List<CreateItemRequest> requests);
+
+  List<ItemResponse> updateItems(List<UpdateItemRequest> requests);
+}
@@ -0,0 +1,163 @@
+package com.wissensalt.springsecuritysessionredis.service;
+
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.wissensalt.springsecuritysessionredis.component.ItemCache;
+import com.wissensalt.springsecuritysessionredis.model.Item;
+import com.wissensalt.springsecuritysessionredis.repository.ItemRepository;
+import com.wissensalt.springsecuritysessionredis.request.CreateItemRequest;
+import com.wissensalt.springsecuritysessionredis.request.UpdateItemRequest;
+import com.wissensalt.springsecuritysessionredis.response.ItemPageResponse;
+import com.wissensalt.springsecuritysessionredis.response.ItemResponse;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityNotFoundException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@RequiredArgsConstructor
+@Service
+public class ItemServiceImpl implements ItemService {
+
+  private static final int STREAM_FLUSH_INTERVAL = 100;
+  private static final int BATCH_SIZE = 50;
+
+  private final ItemRepository itemRepository;
+  private final EntityManager entityManager;
+  private final ItemCache itemCache;
+
+  /**
+   * Not transactional: a cache hit needs no connection, and the loaders run in the read-only
+   * transaction of their repository method.
+   */
+  @Override
+  public List<ItemResponse> getItems() {
+
+    return itemCache.getAll(itemRepository::findAllResponses);
+  }
+
+  @Override
+  public ItemResponse getItem(long id) {
+    final ItemResponse item = itemCache.get(id,
+        key -> itemRepository.findResponseById(key).orElse(null));
+    if (item == null) {
+      throw new EntityNotFoundException("Item with id " + id + " Not found");
+    }
+
+    return item;
+  }
+
+  @Transactional
+  @Override
+  public ItemResponse createItem(CreateItemRequest request) {
+    final Item item = new Item();
+    item.setName(request.name());
+    item.setPrice(request.price());
+    itemRepository.save(item);
+    itemCache.invalidate(List.of());
+
+    return new ItemResponse(item.getId(), item.getName(), item.getPrice());
+  }
+
+  @Transactional
+  @Override
+  public ItemResponse updateItem(UpdateItemRequest request) {
+    if (itemRepository.updateNameAndPrice(request.id(), request.name(), request.price()) == 0) {
+      throw new EntityNotFoundException("Item with id " + request.id() + " Not found");
+    }
+    itemCache.invalidate(List.of(request.id()));
+
+    return new ItemResponse(request.id(), request.name(), request.price());
+  }
+
+  @Transactional(readOnly = true)
+  @Override
+  public ItemPageResponse getItemPage(long afterId, int size) {
+    final List<ItemResponse> items = itemRepository.findPageAfter(afterId,
+        PageRequest.ofSize(size));
+    final Long nextCursor = items.size() < size ? null : items.get(items.size() - 1).id();
+
+    return new ItemPageResponse(items, nextCursor);
+  }
+
+  @Transactional(readOnly = true)
+  @Override
+  public void writeItems(SequenceWriter writer) throws IOException {
+    try (Stream<ItemResponse> items = itemRepository.streamAll()) {
+      final Iterator<ItemResponse> iterator = items.iterator();
+      int written = 0;
+      while (iterator.hasNext()) {
+        writer.write(iterator.next());
+        if (++written % STREAM_FLUSH_INTERVAL == 1) {
+          writer.flush();
+        }
+      }
+    }
+  }
+
+  @Transactional
+  @Override
+  public List<ItemResponse> createItems(List<CreateItemRequest> requests) {
+    final List<ItemResponse> responses = new ArrayList<>(requests.size());
+    for (int from = 0; from < requests.size(); from += BATCH_SIZE) {
+      final List<Item> items = requests.subList(from, Math.min(from + BATCH_SIZE, requests.size()))
+          .stream()
+          .map(request -> {
+            final Item item = new Item();
+            item.setName(request.name());
+            item.setPrice(request.price());
+            return item;
+          })
+          .toList();
+      itemRepository.saveAll(items);
+      flushBatch(items, responses);
+    }
+    itemCache.invalidate(List.of());
+
+    return responses;
+  }
+
+  @Transactional
+  @Override
+  public List<ItemResponse> updateItems(List<UpdateItemRequest> requests) {
+    final List<ItemResponse> responses = new ArrayList<>(requests.size());
+    for (int from = 0; from < requests.size(); from += BATCH_SIZE) {
+      final List<UpdateItemRequest> batch = requests.subList(from,
+          Math.min(from + BATCH_SIZE, requests.size()));
+      final Map<Long, Item> itemsById = itemRepository
+          .findAllById(batch.stream().map(UpdateItemRequest::id).toList())
+          .stream()
+          .collect(Collectors.toMap(Item::getId, Function.identity()));
+      final List<Item> items = batch.stream()
+          .map(request -> {
+            final Item item = itemsById.get(request.id());
+            if (item == null) {
+              throw new EntityNotFoundException("Item with id " + request.id() + " Not found");
+            }
+            item.setName(request.name());
+            item.setPrice(request.price());
+            return item;
+          })
+          .toList();
+      flushBatch(items, responses);
+    }
+    itemCache.invalidate(requests.stream().map(UpdateItemRequest::id).toList());
+
+    return responses;
+  }
+
+  private void flushBatch(List<Item> items, List<ItemResponse> responses) {
+    entityManager.flush();
+    items.forEach(item -> responses.add(
+        new ItemResponse(item.getId(), item.getName(), item.getPrice())));
+    entityManager.clear();
+  }
+}
@@ -0,0 +1,12 @@
+package com.wissensalt.springsecuritysessionredis.service;
+
+import com.wissensalt.springsecuritysessionredis.response.SessionResponse;
+import com.wissensalt.springsecuritysessionredis.response.SessionRevocationResponse;
+import java.util.List;
+
+public interface SessionService {
+
+  List<SessionResponse> getSessions(String email);
+
+  SessionRevocationResponse revokeSessions(String email);
+}
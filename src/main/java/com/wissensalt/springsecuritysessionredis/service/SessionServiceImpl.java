@@ -0,0 +1,50 @@
+package com.wissensalt.springsecuritysessionredis.service;
+
+import com.wissensalt.springsecuritysessionredis.response.SessionResponse;
+import com.wissensalt.springsecuritysessionredis.response.SessionRevocationResponse;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import lombok.RequiredArgsConstructor;
+import org.springframework.session.FindByIndexNameSessionRepository;
+import org.springframework.session.Session;
+import org.springframework.session.SessionRepository;
+import org.springframework.stereotype.Service;
+
+/**
+ * Lists and revokes the sessions of one account through the principal name index of the session
+ * store, so both cost one lookup per session of that account rather than a scan of all sessions,
+ * and a revocation deletes exactly the sessions a listing would show.
+ */
+@RequiredArgsConstructor
+@Service
+public class SessionServiceImpl implements SessionService {
+
+  private final FindByIndexNameSessionRepository<? extends Session> indexedSessionRepository;
+  private final SessionRepository<? extends Session> sessionRepository;
+
+  @Override
+  public List<SessionResponse> getSessions(String email) {
+
+    return indexedSessionRepository.findByPrincipalName(email)
+        .values()
+        .stream()
+        .map(session -> new SessionResponse(
+            session.getId(),
+            session.getCreationTime(),
+            session.getLastAccessedTime(),
+            session.getLastAccessedTime().plus(session.getMaxInactiveInterval())))
+        .sorted(Comparator.comparing(SessionResponse::creationTime))
+        .toList();
+  }
+
+  @Override
+  public SessionRevocationResponse revokeSessions(String email) {
+    final Set<String> sessionIds = indexedSessionRepository.findByPrincipalName(email).keySet();
+    for (String sessionId : sessionIds) {
+      sessionRepository.deleteById(sessionId);
+    }
+
+    return new SessionRevocationResponse(sessionIds.size());
+  }
+}
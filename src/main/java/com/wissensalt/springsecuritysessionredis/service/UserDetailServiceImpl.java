@@ -1,10 +1,13 @@
 package com.wissensalt.springsecuritysessionredis.service;
 
+import com.wissensalt.springsecuritysessionredis.component.AccountEmailFilter;
 import com.wissensalt.springsecuritysessionredis.model.Account;
 import com.wissensalt.springsecuritysessionredis.repository.AccountRepository;
 import java.util.Optional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -12,18 +15,38 @@ import org.springframework.transaction.annotation.Transactional;
 
 @RequiredArgsConstructor
 @Service
-public class UserDetailServiceImpl implements UserDetailsService {
+public class UserDetailServiceImpl implements UserDetailsService, UserDetailsPasswordService {
 
   private final AccountRepository accountRepository;
+  private final ObjectProvider<AccountEmailFilter> accountEmailFilter;
 
   @Transactional(readOnly = true)
   @Override
   public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-    final Optional<Account> userOptional = accountRepository.findFirstByEmail(username);
+    final AccountEmailFilter filter = accountEmailFilter.getIfAvailable();
+    if (filter != null && !filter.mightExist(username)) {
+      throw new UsernameNotFoundException(String.format("User with email %s Not Found", username));
+    }
+
+    final Optional<Account> userOptional = accountRepository.findWithAuthoritiesByEmail(username);
     if (userOptional.isEmpty()) {
+      if (filter != null) {
+        filter.markUnknown(username);
+      }
       throw new UsernameNotFoundException(String.format("User with email %s Not Found", username));
     }
 
     return userOptional.get();
   }
+
+  @Transactional
+  @Override
+  public UserDetails updatePassword(UserDetails user, String newPassword) {
+    accountRepository.updatePasswordByEmail(user.getUsername(), newPassword);
+    if (user instanceof Account account) {
+      account.setPassword(newPassword);
+    }
+
+    return user;
+  }
 }
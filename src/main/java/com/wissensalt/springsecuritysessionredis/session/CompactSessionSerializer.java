@@ -0,0 +1,251 @@
+package com.wissensalt.springsecuritysessionredis.session;
+
+import com.wissensalt.springsecuritysessionredis.component.PrivilegeAuthenticationToken;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UTFDataFormatException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextImpl;
+
+/**
+ * Session attribute serializer with a hand-written binary layout for the security context and
+ * simple values. Every binary payload starts with {@link #MAGIC} and a version byte; anything
+ * else is handed to the JSON delegate, so sessions written by the JSON serializer stay readable.
+ * Values that do not fit the binary layout, such as strings over 65535 UTF-8 bytes, are written as
+ * tagged JSON instead.
+ */
+public class CompactSessionSerializer implements RedisSerializer<Object> {
+
+  static final byte MAGIC = (byte) 0xC5;
+  static final byte VERSION = 1;
+
+  private static final byte TYPE_STRING = 1;
+  private static final byte TYPE_LONG = 2;
+  private static final byte TYPE_INTEGER = 3;
+  private static final byte TYPE_BOOLEAN = 4;
+  private static final byte TYPE_SECURITY_CONTEXT = 5;
+  private static final byte TYPE_PRIVILEGE_SECURITY_CONTEXT = 6;
+  private static final byte TYPE_JSON = 127;
+
+  private static final byte[] EMPTY_ARRAY = new byte[0];
+  private static final int MAX_COUNT = 0xFFFF;
+
+  private final RedisSerializer<Object> jsonSerializer;
+  private final SessionSerializationFormat format;
+
+  public CompactSessionSerializer(RedisSerializer<Object> jsonSerializer,
+      SessionSerializationFormat format) {
+    this.jsonSerializer = jsonSerializer;
+    this.format = format;
+  }
+
+  @Override
+  public byte[] serialize(Object value) throws SerializationException {
+    if (value == null) {
+      return EMPTY_ARRAY;
+    }
+    if (this.format == SessionSerializationFormat.JSON) {
+      return this.jsonSerializer.serialize(value);
+    }
+
+    try {
+      return writeCompact(value);
+    } catch (UTFDataFormatException ex) {
+      return writeJson(value);
+    } catch (IOException ex) {
+      throw new SerializationException("Could not write compact session attribute", ex);
+    }
+  }
+
+  private byte[] writeCompact(Object value) throws IOException {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeByte(MAGIC);
+      out.writeByte(VERSION);
+      if (value instanceof String string) {
+        out.writeByte(TYPE_STRING);
+        out.writeUTF(string);
+      } else if (value instanceof Long number) {
+        out.writeByte(TYPE_LONG);
+        out.writeLong(number);
+      } else if (value instanceof Integer number) {
+        out.writeByte(TYPE_INTEGER);
+        out.writeInt(number);
+      } else if (value instanceof Boolean bool) {
+        out.writeByte(TYPE_BOOLEAN);
+        out.writeBoolean(bool);
+      } else if (isPrivilegeSecurityContext(value)) {
+        out.writeByte(TYPE_PRIVILEGE_SECURITY_CONTEXT);
+        writePrivilegeAuthentication(out,
+            (PrivilegeAuthenticationToken) ((SecurityContextImpl) value).getAuthentication());
+      } else if (isCompactSecurityContext(value)) {
+        out.writeByte(TYPE_SECURITY_CONTEXT);
+        writeAuthentication(out, ((SecurityContextImpl) value).getAuthentication());
+      } else {
+        out.writeByte(TYPE_JSON);
+        out.write(this.jsonSerializer.serialize(value));
+      }
+    }
+
+    return bytes.toByteArray();
+  }
+
+  private byte[] writeJson(Object value) {
+    final byte[] json = this.jsonSerializer.serialize(value);
+    final byte[] bytes = new byte[json.length + 3];
+    bytes[0] = MAGIC;
+    bytes[1] = VERSION;
+    bytes[2] = TYPE_JSON;
+    System.arraycopy(json, 0, bytes, 3, json.length);
+
+    return bytes;
+  }
+
+  @Override
+  public Object deserialize(byte[] bytes) throws SerializationException {
+    if (bytes == null || bytes.length == 0) {
+      return null;
+    }
+    if (bytes[0] != MAGIC) {
+      return this.jsonSerializer.deserialize(bytes);
+    }
+    if (bytes.length < 3 || bytes[1] > VERSION) {
+      throw new SerializationException("Unsupported compact session attribute version "
+          + (bytes.length > 1 ? bytes[1] : -1));
+    }
+
+    try (DataInputStream in = new DataInputStream(
+        new ByteArrayInputStream(bytes, 3, bytes.length - 3))) {
+      return switch (bytes[2]) {
+        case TYPE_STRING -> in.readUTF();
+        case TYPE_LONG -> in.readLong();
+        case TYPE_INTEGER -> in.readInt();
+        case TYPE_BOOLEAN -> in.readBoolean();
+        case TYPE_SECURITY_CONTEXT -> new SecurityContextImpl(readAuthentication(in));
+        case TYPE_PRIVILEGE_SECURITY_CONTEXT -> new SecurityContextImpl(
+            readPrivilegeAuthentication(in));
+        case TYPE_JSON -> this.jsonSerializer.deserialize(in.readAllBytes());
+        default -> throw new SerializationException(
+            "Unknown compact session attribute type " + bytes[2]);
+      };
+    } catch (IOException ex) {
+      throw new SerializationException("Could not read compact session attribute", ex);
+    }
+  }
+
+  private static boolean isPrivilegeSecurityContext(Object value) {
+    return value.getClass() == SecurityContextImpl.class
+        && ((SecurityContextImpl) value).getAuthentication()
+        instanceof PrivilegeAuthenticationToken token
+        && token.getDetails() == null
+        && token.getAuthorities().size() <= MAX_COUNT
+        && token.getPrivileges().length <= MAX_COUNT;
+  }
+
+  private static boolean isCompactSecurityContext(Object value) {
+    if (value.getClass() != SecurityContextImpl.class) {
+      return false;
+    }
+    final Authentication authentication = ((SecurityContextImpl) value).getAuthentication();
+
+    return authentication != null
+        && authentication.getClass() == UsernamePasswordAuthenticationToken.class
+        && authentication.getPrincipal() instanceof String
+        && (authentication.getCredentials() == null
+        || authentication.getCredentials() instanceof String)
+        && authentication.getDetails() == null
+        && authentication.getAuthorities().size() <= MAX_COUNT
+        && authentication.getAuthorities().stream()
+        .allMatch(authority -> authority.getClass() == SimpleGrantedAuthority.class);
+  }
+
+  private static void writeAuthentication(DataOutputStream out, Authentication authentication)
+      throws IOException {
+    out.writeBoolean(authentication.isAuthenticated());
+    out.writeUTF((String) authentication.getPrincipal());
+    writeNullableString(out, (String) authentication.getCredentials());
+    final Collection<? extends GrantedAuthority> authorities = authentication.getAuthorities();
+    out.writeShort(authorities.size());
+    for (GrantedAuthority authority : authorities) {
+      out.writeUTF(authority.getAuthority());
+    }
+  }
+
+  private static Authentication readAuthentication(DataInputStream in) throws IOException {
+    final boolean authenticated = in.readBoolean();
+    final String principal = in.readUTF();
+    final String credentials = readNullableString(in);
+    final int size = in.readUnsignedShort();
+    final List<GrantedAuthority> authorities = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      authorities.add(new SimpleGrantedAuthority(in.readUTF()));
+    }
+
+    return authenticated
+        ? UsernamePasswordAuthenticationToken.authenticated(principal, credentials, authorities)
+        : UsernamePasswordAuthenticationToken.unauthenticated(principal, credentials);
+  }
+
+  private static void writePrivilegeAuthentication(DataOutputStream out,
+      PrivilegeAuthenticationToken token) throws IOException {
+    out.writeLong(token.getAccountId());
+    out.writeUTF(token.getEmail());
+    final String[] authorities = token.getAuthorityNames();
+    out.writeShort(authorities.length);
+    for (String authority : authorities) {
+      out.writeUTF(authority);
+    }
+    writePrivileges(out, token.getPrivileges());
+  }
+
+  private static Authentication readPrivilegeAuthentication(DataInputStream in)
+      throws IOException {
+    final long accountId = in.readLong();
+    final String email = in.readUTF();
+    final String[] authorities = new String[in.readUnsignedShort()];
+    for (int i = 0; i < authorities.length; i++) {
+      authorities[i] = in.readUTF();
+    }
+
+    return PrivilegeAuthenticationToken.of(accountId, email, authorities, readPrivileges(in));
+  }
+
+  private static void writePrivileges(DataOutputStream out, long[] privileges)
+      throws IOException {
+    out.writeShort(privileges.length);
+    for (long word : privileges) {
+      out.writeLong(word);
+    }
+  }
+
+  private static long[] readPrivileges(DataInputStream in) throws IOException {
+    final long[] privileges = new long[in.readUnsignedShort()];
+    for (int i = 0; i < privileges.length; i++) {
+      privileges[i] = in.readLong();
+    }
+
+    return privileges;
+  }
+
+  private static void writeNullableString(DataOutputStream out, String value) throws IOException {
+    out.writeBoolean(value != null);
+    if (value != null) {
+      out.writeUTF(value);
+    }
+  }
+
+  private static String readNullableString(DataInputStream in) throws IOException {
+    return in.readBoolean() ? in.readUTF() : null;
+  }
+}
@@ -0,0 +1,357 @@
+package com.wissensalt.springsecuritysessionredis.session;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.session.FindByIndexNameSessionRepository;
+import org.springframework.session.MapSession;
+import org.springframework.session.Session;
+import org.springframework.session.SessionRepository;
+import org.springframework.session.data.redis.RedisSessionRepository;
+
+/**
+ * {@link SessionRepository} that tracks changed hash fields per request and writes them together
+ * with the key expiry in one pipeline when the session is saved. Reads are served from an
+ * optional {@link SessionNearCache}, then from optional read operations bound to replicas, and
+ * finally from the operations of the wrapped {@link RedisSessionRepository}, which also covers
+ * replication lag right after a session is created. All of them use the same hash layout. A
+ * session that is expired, cannot be decoded or cannot be mapped on the primary is handed to the
+ * stale session handler instead of being deleted on the request thread.
+ *
+ * <p>A changed session id is applied with {@code RENAME}, or with {@code DUMP}, {@code RESTORE}
+ * and {@code DEL} when the old and new key may live in different cluster slots.
+ *
+ * <p>Sessions are found by principal name through the {@link PrincipalSessionIndex}, which is
+ * also kept in step when a session is deleted or its id changes.
+ *
+ * <p>In {@link SessionWriteMode#LAZY} mode a request that changes nothing but the access time only
+ * writes once {@code touchThreshold} of the max inactive interval has passed since the stored
+ * access time, and a security context equal to the stored one is not written again. The key may
+ * then expire up to that fraction of the interval early.
+ */
+public class DeltaRedisSessionRepository implements
+    FindByIndexNameSessionRepository<DeltaRedisSessionRepository.DeltaSession> {
+
+  static final String CREATION_TIME_KEY = "creationTime";
+  static final String LAST_ACCESSED_TIME_KEY = "lastAccessedTime";
+  static final String MAX_INACTIVE_INTERVAL_KEY = "maxInactiveInterval";
+  static final String ATTRIBUTE_PREFIX = "sessionAttr:";
+
+  private static final String SECURITY_CONTEXT_ATTRIBUTE =
+      HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY;
+
+  private final RedisSessionRepository delegate;
+  private final RedisOperations<String, Object> readOperations;
+  private final BiFunction<String, Map<String, Object>, MapSession> sessionMapper;
+  private final Consumer<String> staleSessionHandler;
+  private final PrincipalSessionIndex principalSessionIndex;
+  private final SessionNearCache nearCache;
+  private final String keyPrefix;
+  private final boolean lazy;
+  private final double touchThreshold;
+  private final boolean crossSlotRename;
+
+  public DeltaRedisSessionRepository(RedisSessionRepository delegate,
+      RedisOperations<String, Object> readOperations,
+      BiFunction<String, Map<String, Object>, MapSession> sessionMapper,
+      Consumer<String> staleSessionHandler, PrincipalSessionIndex principalSessionIndex,
+      SessionNearCache nearCache, String namespace,
+      SessionWriteMode writeMode, double touchThreshold, boolean crossSlotRename) {
+    this.delegate = delegate;
+    this.readOperations = readOperations;
+    this.sessionMapper = sessionMapper;
+    this.staleSessionHandler = staleSessionHandler;
+    this.principalSessionIndex = principalSessionIndex;
+    this.nearCache = nearCache;
+    this.keyPrefix = namespace + ":sessions:";
+    this.lazy = writeMode == SessionWriteMode.LAZY;
+    this.touchThreshold = Math.max(0, Math.min(touchThreshold, 1));
+    this.crossSlotRename = crossSlotRename;
+  }
+
+  @Override
+  public DeltaSession createSession() {
+    return new DeltaSession(new MapSession(this.delegate.createSession()), true);
+  }
+
+  @Override
+  public void save(DeltaSession session) {
+    final String key = getSessionKey(session.getId());
+    final boolean changedSessionId = session.hasChangedSessionId();
+    final boolean changedContent = session.hasChangedContent();
+    if (changedContent && this.lazy) {
+      session.delta.put(LAST_ACCESSED_TIME_KEY, session.getLastAccessedTime().toEpochMilli());
+    }
+
+    final String originalKey = getSessionKey(session.originalSessionId);
+    final boolean renameInPipeline = changedSessionId && !this.crossSlotRename;
+    if (changedSessionId && this.crossSlotRename) {
+      moveSessionKey(originalKey, key);
+    }
+    if (renameInPipeline || !session.delta.isEmpty()) {
+      final Map<String, Object> delta = new HashMap<>(session.delta);
+      final Duration maxInactiveInterval = session.getMaxInactiveInterval();
+      final Instant expireAt = session.getLastAccessedTime().plus(maxInactiveInterval);
+      this.delegate.getSessionRedisOperations().executePipelined(new SessionCallback<>() {
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <K, V> Object execute(RedisOperations<K, V> operations)
+            throws DataAccessException {
+          final RedisOperations<String, Object> redisOperations =
+              (RedisOperations<String, Object>) operations;
+          if (renameInPipeline) {
+            redisOperations.rename(originalKey, key);
+          }
+          if (!delta.isEmpty()) {
+            redisOperations.opsForHash().putAll(key, delta);
+            if (maxInactiveInterval.isNegative()) {
+              redisOperations.persist(key);
+            } else {
+              redisOperations.expireAt(key, expireAt);
+            }
+          }
+
+          return null;
+        }
+      });
+    }
+    if (changedSessionId) {
+      this.principalSessionIndex.rename(session.originalSessionId, session.getId());
+    }
+
+    if (this.nearCache != null) {
+      if (changedContent) {
+        this.nearCache.invalidate(session.originalSessionId);
+      }
+      final MapSession snapshot = new MapSession(session.cached);
+      snapshot.setLastAccessedTime(session.storedLastAccessedTime());
+      this.nearCache.put(snapshot);
+    }
+    session.markSaved();
+  }
+
+  @Override
+  public DeltaSession findById(String id) {
+    MapSession cached = this.nearCache != null ? this.nearCache.get(id) : null;
+    if (cached == null || cached.isExpired()) {
+      MapSession loaded = this.readOperations != null
+          ? load(this.readOperations, id, false)
+          : null;
+      if (loaded == null) {
+        loaded = load(this.delegate.getSessionRedisOperations(), id, true);
+      }
+      if (loaded == null) {
+        if (this.nearCache != null) {
+          this.nearCache.evict(id);
+        }
+        return null;
+      }
+      cached = loaded;
+      if (this.nearCache != null) {
+        this.nearCache.put(cached);
+      }
+    }
+
+    return new DeltaSession(new MapSession(cached), false);
+  }
+
+  @Override
+  public void deleteById(String id) {
+    this.principalSessionIndex.delete(id);
+    if (this.nearCache != null) {
+      this.nearCache.invalidate(id);
+    }
+  }
+
+  @Override
+  public Map<String, DeltaSession> findByIndexNameAndIndexValue(String indexName,
+      String indexValue) {
+    if (!PRINCIPAL_NAME_INDEX_NAME.equals(indexName)) {
+      return Map.of();
+    }
+
+    final Map<String, DeltaSession> sessions = new LinkedHashMap<>();
+    for (String sessionId : this.principalSessionIndex.getSessionIds(indexValue)) {
+      final DeltaSession session = findById(sessionId);
+      if (session != null) {
+        sessions.put(sessionId, session);
+      }
+    }
+
+    return sessions;
+  }
+
+  private MapSession load(RedisOperations<String, Object> redisOperations, String id,
+      boolean primary) {
+    MapSession session;
+    try {
+      final Map<String, Object> entries =
+          redisOperations.<String, Object>opsForHash().entries(getSessionKey(id));
+      if (entries.isEmpty()) {
+        return null;
+      }
+      session = this.sessionMapper.apply(id, entries);
+    } catch (SerializationException ex) {
+      session = null;
+    }
+    if (session == null || session.isExpired()) {
+      if (primary) {
+        this.staleSessionHandler.accept(id);
+      }
+      return null;
+    }
+
+    return session;
+  }
+
+  private void moveSessionKey(String originalKey, String key) {
+    final RedisOperations<String, Object> redisOperations =
+        this.delegate.getSessionRedisOperations();
+    final Long ttl = redisOperations.getExpire(originalKey, TimeUnit.MILLISECONDS);
+    final byte[] dump = redisOperations.dump(originalKey);
+    if (dump == null || ttl == null || ttl == -2) {
+      return;
+    }
+
+    redisOperations.restore(key, dump, Math.max(ttl, 0), TimeUnit.MILLISECONDS, true);
+    redisOperations.delete(originalKey);
+  }
+
+  private String getSessionKey(String sessionId) {
+    return this.keyPrefix + sessionId;
+  }
+
+  public final class DeltaSession implements Session {
+
+    private final MapSession cached;
+    private final Map<String, Object> delta = new HashMap<>();
+    private boolean isNew;
+    private String originalSessionId;
+    private Instant storedLastAccessedTime;
+    private Object storedSecurityContext;
+
+    DeltaSession(MapSession cached, boolean isNew) {
+      this.cached = cached;
+      this.isNew = isNew;
+      this.originalSessionId = cached.getId();
+      this.storedLastAccessedTime = cached.getLastAccessedTime();
+      this.storedSecurityContext = cached.getAttribute(SECURITY_CONTEXT_ATTRIBUTE);
+      if (isNew) {
+        this.delta.put(CREATION_TIME_KEY, cached.getCreationTime().toEpochMilli());
+        this.delta.put(MAX_INACTIVE_INTERVAL_KEY,
+            (int) cached.getMaxInactiveInterval().getSeconds());
+        this.delta.put(LAST_ACCESSED_TIME_KEY, cached.getLastAccessedTime().toEpochMilli());
+      }
+    }
+
+    @Override
+    public String getId() {
+      return this.cached.getId();
+    }
+
+    @Override
+    public String changeSessionId() {
+      return this.cached.changeSessionId();
+    }
+
+    @Override
+    public <T> T getAttribute(String attributeName) {
+      return this.cached.getAttribute(attributeName);
+    }
+
+    @Override
+    public Set<String> getAttributeNames() {
+      return this.cached.getAttributeNames();
+    }
+
+    @Override
+    public void setAttribute(String attributeName, Object attributeValue) {
+      this.cached.setAttribute(attributeName, attributeValue);
+      if (lazy && !this.isNew && SECURITY_CONTEXT_ATTRIBUTE.equals(attributeName)
+          && attributeValue != this.storedSecurityContext
+          && Objects.equals(attributeValue, this.storedSecurityContext)) {
+        this.delta.remove(ATTRIBUTE_PREFIX + attributeName);
+        return;
+      }
+      this.delta.put(ATTRIBUTE_PREFIX + attributeName, attributeValue);
+    }
+
+    @Override
+    public void removeAttribute(String attributeName) {
+      setAttribute(attributeName, null);
+    }
+
+    @Override
+    public Instant getCreationTime() {
+      return this.cached.getCreationTime();
+    }
+
+    @Override
+    public void setLastAccessedTime(Instant lastAccessedTime) {
+      this.cached.setLastAccessedTime(lastAccessedTime);
+      if (lazy && !this.isNew && lastAccessedTime.isBefore(this.storedLastAccessedTime
+          .plusMillis((long) (getMaxInactiveInterval().toMillis() * touchThreshold)))) {
+        this.delta.remove(LAST_ACCESSED_TIME_KEY);
+        return;
+      }
+      this.delta.put(LAST_ACCESSED_TIME_KEY, lastAccessedTime.toEpochMilli());
+    }
+
+    @Override
+    public Instant getLastAccessedTime() {
+      return this.cached.getLastAccessedTime();
+    }
+
+    @Override
+    public void setMaxInactiveInterval(Duration interval) {
+      this.cached.setMaxInactiveInterval(interval);
+      this.delta.put(MAX_INACTIVE_INTERVAL_KEY, (int) interval.getSeconds());
+    }
+
+    @Override
+    public Duration getMaxInactiveInterval() {
+      return this.cached.getMaxInactiveInterval();
+    }
+
+    @Override
+    public boolean isExpired() {
+      return this.cached.isExpired();
+    }
+
+    private boolean hasChangedSessionId() {
+      return !this.isNew && !getId().equals(this.originalSessionId);
+    }
+
+    private boolean hasChangedContent() {
+      return !this.isNew && (hasChangedSessionId() || this.delta.keySet().stream()
+          .anyMatch(key -> !LAST_ACCESSED_TIME_KEY.equals(key)));
+    }
+
+    private Instant storedLastAccessedTime() {
+      return this.delta.containsKey(LAST_ACCESSED_TIME_KEY)
+          ? getLastAccessedTime()
+          : this.storedLastAccessedTime;
+    }
+
+    private void markSaved() {
+      this.storedLastAccessedTime = storedLastAccessedTime();
+      this.storedSecurityContext = this.cached.getAttribute(SECURITY_CONTEXT_ATTRIBUTE);
+      this.delta.clear();
+      this.isNew = false;
+      this.originalSessionId = getId();
+    }
+  }
+}
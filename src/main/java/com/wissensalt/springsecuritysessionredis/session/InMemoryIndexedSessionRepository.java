@@ -0,0 +1,234 @@
+package com.wissensalt.springsecuritysessionredis.session;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import org.springframework.session.FindByIndexNameSessionRepository;
+import org.springframework.session.MapSession;
+import org.springframework.session.PrincipalNameIndexResolver;
+import org.springframework.session.Session;
+
+/**
+ * Heap-only {@link FindByIndexNameSessionRepository} for a single node, tests and load tests.
+ * Sessions live in a {@link ConcurrentHashMap}; every update of a session id is applied through
+ * {@link ConcurrentHashMap#compute}, which also keeps the principal name index consistent.
+ *
+ * <p>Expiry uses a hashed timer wheel: each session id sits in exactly one slot, and a single
+ * thread visits one slot per tick, dropping the sessions that are expired and moving the rest to
+ * the slot of their current expiry. That is one queue node per session instead of a timer task
+ * per access. Lookups still check expiry themselves, so a session is never returned late.
+ *
+ * <p>The tick an id is queued for is remembered until the wheel drops it, also across a delete,
+ * so saving a deleted id again reuses its entry, and a visit of a slot the id no longer belongs
+ * to is ignored.
+ */
+public class InMemoryIndexedSessionRepository implements
+    FindByIndexNameSessionRepository<MapSession>, AutoCloseable {
+
+  private final Map<String, StoredSession> sessions = new ConcurrentHashMap<>();
+  private final Map<String, Set<String>> sessionIdsByPrincipal = new ConcurrentHashMap<>();
+  private final Map<String, Long> queuedTicks = new ConcurrentHashMap<>();
+  private final PrincipalNameIndexResolver<Session> indexResolver =
+      new PrincipalNameIndexResolver<>();
+  private final AtomicReferenceArray<ConcurrentLinkedQueue<String>> wheel;
+  private final long tickMillis;
+  private final ScheduledExecutorService expiryExecutor;
+  private volatile long processedTick;
+  private Duration defaultMaxInactiveInterval = MapSession.DEFAULT_MAX_INACTIVE_INTERVAL;
+
+  public InMemoryIndexedSessionRepository(Duration tick, int wheelSize) {
+    this.tickMillis = Math.max(tick.toMillis(), 1);
+    this.wheel = new AtomicReferenceArray<>(Math.max(wheelSize, 1));
+    for (int i = 0; i < this.wheel.length(); i++) {
+      this.wheel.set(i, new ConcurrentLinkedQueue<>());
+    }
+    this.processedTick = currentTick();
+    this.expiryExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      final Thread thread = new Thread(runnable, "session-expiry");
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.expiryExecutor.scheduleAtFixedRate(this::expireSessions, this.tickMillis,
+        this.tickMillis, TimeUnit.MILLISECONDS);
+  }
+
+  public void setDefaultMaxInactiveInterval(Duration defaultMaxInactiveInterval) {
+    this.defaultMaxInactiveInterval = defaultMaxInactiveInterval;
+  }
+
+  public int size() {
+    return this.sessions.size();
+  }
+
+  @Override
+  public MapSession createSession() {
+    final MapSession session = new MapSession();
+    session.setMaxInactiveInterval(this.defaultMaxInactiveInterval);
+
+    return session;
+  }
+
+  @Override
+  public void save(MapSession session) {
+    if (!session.getId().equals(session.getOriginalId())) {
+      deleteById(session.getOriginalId());
+    }
+
+    final MapSession stored = new MapSession(session);
+    final String principalName = this.indexResolver.resolveIndexValueFor(stored);
+    this.sessions.compute(stored.getId(), (sessionId, previous) -> {
+      if (previous == null && !this.queuedTicks.containsKey(sessionId)) {
+        schedule(sessionId, stored);
+      } else if (previous.principalName() != null
+          && !previous.principalName().equals(principalName)) {
+        unindex(sessionId, previous.principalName());
+      }
+      if (principalName != null) {
+        index(sessionId, principalName);
+      }
+
+      return new StoredSession(stored, principalName);
+    });
+  }
+
+  @Override
+  public MapSession findById(String id) {
+    final StoredSession stored = this.sessions.get(id);
+    if (stored == null) {
+      return null;
+    }
+    if (stored.session().isExpired()) {
+      deleteById(id);
+      return null;
+    }
+
+    return new MapSession(stored.session());
+  }
+
+  @Override
+  public void deleteById(String id) {
+    this.sessions.computeIfPresent(id, (sessionId, stored) -> {
+      unindex(sessionId, stored.principalName());
+      return null;
+    });
+  }
+
+  @Override
+  public Map<String, MapSession> findByIndexNameAndIndexValue(String indexName,
+      String indexValue) {
+    if (!PRINCIPAL_NAME_INDEX_NAME.equals(indexName)) {
+      return Map.of();
+    }
+
+    final Set<String> sessionIds = this.sessionIdsByPrincipal.get(indexValue);
+    if (sessionIds == null) {
+      return Map.of();
+    }
+    final Map<String, MapSession> result = new HashMap<>();
+    for (String sessionId : sessionIds) {
+      final MapSession session = findById(sessionId);
+      if (session != null) {
+        result.put(sessionId, session);
+      }
+    }
+
+    return result;
+  }
+
+  @Override
+  public void close() {
+    this.expiryExecutor.shutdownNow();
+  }
+
+  void expireSessions() {
+    final long currentTick = currentTick();
+    for (long tick = Math.max(this.processedTick + 1, currentTick - this.wheel.length() + 1);
+        tick <= currentTick; tick++) {
+      this.processedTick = tick;
+      final ConcurrentLinkedQueue<String> due =
+          this.wheel.getAndSet(slot(tick), new ConcurrentLinkedQueue<>());
+      final int dueSlot = slot(tick);
+      for (String sessionId : due) {
+        this.sessions.compute(sessionId, (id, stored) -> {
+          final Long queuedTick = this.queuedTicks.get(id);
+          if (queuedTick == null || slot(queuedTick) != dueSlot) {
+            return stored;
+          }
+          if (stored == null) {
+            this.queuedTicks.remove(id);
+            return null;
+          }
+          if (!stored.session().isExpired()) {
+            schedule(id, stored.session());
+            return stored;
+          }
+          this.queuedTicks.remove(id);
+          unindex(id, stored.principalName());
+          return null;
+        });
+      }
+    }
+  }
+
+  int queuedEntries() {
+    int entries = 0;
+    for (int i = 0; i < this.wheel.length(); i++) {
+      entries += this.wheel.get(i).size();
+    }
+
+    return entries;
+  }
+
+  private void schedule(String sessionId, MapSession session) {
+    final long expiresAt = session.getLastAccessedTime()
+        .plus(session.getMaxInactiveInterval())
+        .toEpochMilli();
+    while (true) {
+      final long tick = Math.max(Math.floorDiv(expiresAt, this.tickMillis) + 1,
+          this.processedTick + 1);
+      final ConcurrentLinkedQueue<String> queue = this.wheel.get(slot(tick));
+      this.queuedTicks.put(sessionId, tick);
+      queue.add(sessionId);
+      if (this.wheel.get(slot(tick)) == queue) {
+        return;
+      }
+    }
+  }
+
+  private void index(String sessionId, String principalName) {
+    this.sessionIdsByPrincipal.compute(principalName, (name, sessionIds) -> {
+      final Set<String> ids = sessionIds != null ? sessionIds : ConcurrentHashMap.newKeySet();
+      ids.add(sessionId);
+      return ids;
+    });
+  }
+
+  private void unindex(String sessionId, String principalName) {
+    if (principalName == null) {
+      return;
+    }
+    this.sessionIdsByPrincipal.computeIfPresent(principalName, (name, sessionIds) -> {
+      sessionIds.remove(sessionId);
+      return sessionIds.isEmpty() ? null : sessionIds;
+    });
+  }
+
+  private int slot(long tick) {
+    return (int) Math.floorMod(tick, this.wheel.length());
+  }
+
+  private long currentTick() {
+    return System.currentTimeMillis() / this.tickMillis;
+  }
+
+  private record StoredSession(MapSession session, String principalName) {
+
+  }
+}
@@ -0,0 +1,76 @@
+package com.wissensalt.springsecuritysessionredis.session;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * Records encode and decode time of session attributes as {@code session.serializer} and their
+ * encoded size as {@code session.serializer.payload}.
+ */
+public class InstrumentedRedisSerializer implements RedisSerializer<Object> {
+
+  private final RedisSerializer<Object> delegate;
+  private final Timer encodeTimer;
+  private final Timer decodeTimer;
+  private final DistributionSummary encodedBytes;
+  private final DistributionSummary decodedBytes;
+
+  public InstrumentedRedisSerializer(RedisSerializer<Object> delegate,
+      MeterRegistry meterRegistry) {
+    this.delegate = delegate;
+    this.encodeTimer = timer(meterRegistry, "encode");
+    this.decodeTimer = timer(meterRegistry, "decode");
+    this.encodedBytes = payload(meterRegistry, "encode");
+    this.decodedBytes = payload(meterRegistry, "decode");
+  }
+
+  @Override
+  public byte[] serialize(Object value) throws SerializationException {
+    final long start = System.nanoTime();
+    final byte[] bytes = this.delegate.serialize(value);
+    this.encodeTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    if (bytes != null) {
+      this.encodedBytes.record(bytes.length);
+    }
+
+    return bytes;
+  }
+
+  @Override
+  public Object deserialize(byte[] bytes) throws SerializationException {
+    final long start = System.nanoTime();
+    final Object value = this.delegate.deserialize(bytes);
+    this.decodeTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    if (bytes != null) {
+      this.decodedBytes.record(bytes.length);
+    }
+
+    return value;
+  }
+
+  private static Timer timer(MeterRegistry meterRegistry, String operation) {
+    return Timer.builder("session.serializer")
+        .description("Time spent encoding or decoding a session attribute")
+        .tag("operation", operation)
+        .publishPercentileHistogram()
+        .minimumExpectedValue(Duration.ofNanos(500))
+        .maximumExpectedValue(Duration.ofMillis(100))
+        .register(meterRegistry);
+  }
+
+  private static DistributionSummary payload(MeterRegistry meterRegistry, String operation) {
+    return DistributionSummary.builder("session.serializer.payload")
+        .description("Encoded size of a session attribute")
+        .baseUnit("bytes")
+        .tag("operation", operation)
+        .publishPercentileHistogram()
+        .minimumExpectedValue(16.0)
+        .maximumExpectedValue(64.0 * 1024)
+        .register(meterRegistry);
+  }
+}
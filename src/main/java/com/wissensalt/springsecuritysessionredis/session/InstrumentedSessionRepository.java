@@ -0,0 +1,65 @@
+package com.wissensalt.springsecuritysessionredis.session;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.concurrent.TimeUnit;
+import org.springframework.session.Session;
+import org.springframework.session.SessionRepository;
+
+/**
+ * Records the latency of every {@link SessionRepository} call as {@code session.repository},
+ * tagged with the operation and, for lookups, whether a session was found.
+ */
+public class InstrumentedSessionRepository<S extends Session> implements SessionRepository<S> {
+
+  private static final String METRIC_NAME = "session.repository";
+
+  private final SessionRepository<S> delegate;
+  private final Timer findFound;
+  private final Timer findMissing;
+  private final Timer save;
+  private final Timer delete;
+
+  public InstrumentedSessionRepository(SessionRepository<S> delegate,
+      MeterRegistry meterRegistry) {
+    this.delegate = delegate;
+    this.findFound = timer(meterRegistry, "find", "found");
+    this.findMissing = timer(meterRegistry, "find", "missing");
+    this.save = timer(meterRegistry, "save", "none");
+    this.delete = timer(meterRegistry, "delete", "none");
+  }
+
+  @Override
+  public S createSession() {
+    return this.delegate.createSession();
+  }
+
+  @Override
+  public void save(S session) {
+    this.save.record(() -> this.delegate.save(session));
+  }
+
+  @Override
+  public S findById(String id) {
+    final long start = System.nanoTime();
+    final S session = this.delegate.findById(id);
+    (session != null ? this.findFound : this.findMissing)
+        .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+    return session;
+  }
+
+  @Override
+  public void deleteById(String id) {
+    this.delete.record(() -> this.delegate.deleteById(id));
+  }
+
+  private static Timer timer(MeterRegistry meterRegistry, String operation, String result) {
+    return Timer.builder(METRIC_NAME)
+        .description("Latency of session repository calls")
+        .tag("operation", operation)
+        .tag("result", result)
+        .publishPercentileHistogram()
+        .register(meterRegistry);
+  }
+}
@@ -0,0 +1,254 @@
+package com.wissensalt.springsecuritysessionredis.session;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.session.MapSession;
+
+/**
+ * Redis set of session ids per principal name. The principal of a session is stored as an extra
+ * field of the session hash, so the reverse mapping expires together with the session. Ids of
+ * sessions that expired without logout are pruned whenever the set is read.
+ *
+ * <p>The set and the session hash are updated together by Lua scripts, so a session is never
+ * indexed without its principal field or deleted while still indexed. Keys of one principal and
+ * its sessions may live in different cluster slots, so with {@code crossSlot} the same steps are
+ * sent as separate commands instead, and the session limit of {@link #addIfAllowed} is only
+ * enforced per command rather than atomically.
+ */
+public class PrincipalSessionIndex {
+
+  static final String PRINCIPAL_NAME_KEY = "principalName";
+
+  private static final Duration PENDING_SESSION_TIMEOUT = MapSession.DEFAULT_MAX_INACTIVE_INTERVAL;
+
+  private static final RedisScript<Long> ADD_SCRIPT = RedisScript.of("""
+      redis.call('SADD', KEYS[1], ARGV[1])
+      redis.call('HSET', KEYS[2], ARGV[2], ARGV[3])
+      if redis.call('PTTL', KEYS[2]) < 0 then
+        redis.call('PEXPIRE', KEYS[2], ARGV[4])
+      end
+      return 1
+      """, Long.class);
+  private static final RedisScript<Long> ADD_IF_ALLOWED_SCRIPT = RedisScript.of("""
+      if redis.call('SISMEMBER', KEYS[1], ARGV[1]) == 0
+          and redis.call('SCARD', KEYS[1]) >= tonumber(ARGV[5]) then
+        return 0
+      end
+      redis.call('SADD', KEYS[1], ARGV[1])
+      redis.call('HSET', KEYS[2], ARGV[2], ARGV[3])
+      if redis.call('PTTL', KEYS[2]) < 0 then
+        redis.call('PEXPIRE', KEYS[2], ARGV[4])
+      end
+      return 1
+      """, Long.class);
+  private static final RedisScript<Long> REMOVE_SCRIPT = RedisScript.of("""
+      redis.call('SREM', KEYS[1], ARGV[1])
+      redis.call('HDEL', KEYS[2], ARGV[2])
+      return 1
+      """, Long.class);
+  private static final RedisScript<Long> DELETE_SCRIPT = RedisScript.of("""
+      redis.call('SREM', KEYS[1], ARGV[1])
+      return redis.call('DEL', KEYS[2])
+      """, Long.class);
+  private static final RedisScript<Long> RENAME_SCRIPT = RedisScript.of("""
+      if redis.call('EXISTS', KEYS[2]) == 1 then
+        redis.call('SREM', KEYS[1], ARGV[1])
+        redis.call('SADD', KEYS[1], ARGV[2])
+      end
+      return 1
+      """, Long.class);
+
+  private static final RedisSerializer<Long> RESULT_SERIALIZER =
+      new GenericToStringSerializer<>(Long.class);
+
+  private final StringRedisTemplate redisTemplate;
+  private final RedisOperations<String, Object> sessionRedisOperations;
+  private final RedisSerializer<Object> sessionValueSerializer;
+  private final String indexKeyPrefix;
+  private final String sessionKeyPrefix;
+  private final boolean crossSlot;
+
+  public PrincipalSessionIndex(StringRedisTemplate redisTemplate,
+      RedisOperations<String, Object> sessionRedisOperations,
+      RedisSerializer<Object> sessionValueSerializer, String namespace, boolean crossSlot) {
+    this.redisTemplate = redisTemplate;
+    this.sessionRedisOperations = sessionRedisOperations;
+    this.sessionValueSerializer = sessionValueSerializer;
+    this.indexKeyPrefix = namespace + ":index:principal:";
+    this.sessionKeyPrefix = namespace + ":sessions:";
+    this.crossSlot = crossSlot;
+  }
+
+  public void add(String principalName, String sessionId) {
+    final String indexKey = getIndexKey(principalName);
+    final String sessionKey = getSessionKey(sessionId);
+    if (!this.crossSlot) {
+      execute(ADD_SCRIPT, indexKey, sessionKey, utf8(sessionId), utf8(PRINCIPAL_NAME_KEY),
+          this.sessionValueSerializer.serialize(principalName),
+          utf8(Long.toString(PENDING_SESSION_TIMEOUT.toMillis())));
+      return;
+    }
+
+    this.redisTemplate.opsForSet().add(indexKey, sessionId);
+    this.sessionRedisOperations.opsForHash().put(sessionKey, PRINCIPAL_NAME_KEY, principalName);
+    if (this.sessionRedisOperations.getExpire(sessionKey) < 0) {
+      this.sessionRedisOperations.expire(sessionKey, PENDING_SESSION_TIMEOUT);
+    }
+  }
+
+  /**
+   * Adds the session unless the principal already has {@code maxSessions} live sessions other
+   * than this one. Stale ids are pruned first, then the sessions are counted and the new one added
+   * in a single script, so concurrent logins on different nodes cannot both pass the limit. The
+   * script only touches its declared keys; a session expiring in between is still counted, which
+   * can refuse a login but never exceeds the limit.
+   *
+   * @return whether the session was added
+   */
+  public boolean addIfAllowed(String principalName, String sessionId, int maxSessions) {
+    final List<String> sessionIds = getSessionIds(principalName);
+    if (!this.crossSlot) {
+      final Long added = execute(ADD_IF_ALLOWED_SCRIPT, getIndexKey(principalName),
+          getSessionKey(sessionId), utf8(sessionId), utf8(PRINCIPAL_NAME_KEY),
+          this.sessionValueSerializer.serialize(principalName),
+          utf8(Long.toString(PENDING_SESSION_TIMEOUT.toMillis())),
+          utf8(Integer.toString(maxSessions)));
+      return added != null && added == 1L;
+    }
+
+    if (!sessionIds.contains(sessionId) && sessionIds.size() >= maxSessions) {
+      return false;
+    }
+    add(principalName, sessionId);
+
+    return true;
+  }
+
+  public String getPrincipalName(String sessionId) {
+    return (String) this.sessionRedisOperations.opsForHash()
+        .get(getSessionKey(sessionId), PRINCIPAL_NAME_KEY);
+  }
+
+  public List<String> getSessionIds(String principalName) {
+    final String indexKey = getIndexKey(principalName);
+    final Set<String> members = this.redisTemplate.opsForSet().members(indexKey);
+    if (members == null || members.isEmpty()) {
+      return List.of();
+    }
+
+    final List<String> sessionIds = new ArrayList<>(members);
+    final List<Object> exists = this.redisTemplate.executePipelined(
+        (RedisCallback<Object>) connection -> {
+          sessionIds.forEach(sessionId -> existsSession(connection, sessionId));
+          return null;
+        });
+    final List<String> liveSessionIds = new ArrayList<>(sessionIds.size());
+    final List<String> staleSessionIds = new ArrayList<>();
+    for (int i = 0; i < sessionIds.size(); i++) {
+      if (Boolean.TRUE.equals(exists.get(i))) {
+        liveSessionIds.add(sessionIds.get(i));
+      } else {
+        staleSessionIds.add(sessionIds.get(i));
+      }
+    }
+    if (!staleSessionIds.isEmpty()) {
+      this.redisTemplate.opsForSet().remove(indexKey, staleSessionIds.toArray());
+    }
+
+    return liveSessionIds;
+  }
+
+  /**
+   * Drops the session from the index of its principal but keeps the session itself.
+   */
+  public void remove(String sessionId) {
+    final String principalName = getPrincipalName(sessionId);
+    if (principalName == null) {
+      return;
+    }
+
+    final String indexKey = getIndexKey(principalName);
+    final String sessionKey = getSessionKey(sessionId);
+    if (!this.crossSlot) {
+      execute(REMOVE_SCRIPT, indexKey, sessionKey, utf8(sessionId), utf8(PRINCIPAL_NAME_KEY));
+      return;
+    }
+
+    this.redisTemplate.opsForSet().remove(indexKey, sessionId);
+    this.sessionRedisOperations.opsForHash().delete(sessionKey, PRINCIPAL_NAME_KEY);
+  }
+
+  /**
+   * Deletes the session and drops it from the index of its principal.
+   */
+  public void delete(String sessionId) {
+    final String principalName = getPrincipalName(sessionId);
+    final String sessionKey = getSessionKey(sessionId);
+    if (principalName == null) {
+      this.sessionRedisOperations.delete(sessionKey);
+      return;
+    }
+
+    final String indexKey = getIndexKey(principalName);
+    if (!this.crossSlot) {
+      execute(DELETE_SCRIPT, indexKey, sessionKey, utf8(sessionId));
+      return;
+    }
+
+    this.redisTemplate.opsForSet().remove(indexKey, sessionId);
+    this.sessionRedisOperations.delete(sessionKey);
+  }
+
+  /**
+   * Moves the index entry of a session whose id changed; call after its hash was renamed.
+   */
+  public void rename(String originalSessionId, String sessionId) {
+    final String principalName = getPrincipalName(sessionId);
+    if (principalName == null) {
+      return;
+    }
+
+    final String indexKey = getIndexKey(principalName);
+    if (!this.crossSlot) {
+      execute(RENAME_SCRIPT, indexKey, getSessionKey(sessionId), utf8(originalSessionId),
+          utf8(sessionId));
+      return;
+    }
+
+    this.redisTemplate.opsForSet().remove(indexKey, originalSessionId);
+    this.redisTemplate.opsForSet().add(indexKey, sessionId);
+  }
+
+  private Long execute(RedisScript<Long> script, String indexKey, String sessionKey,
+      byte[]... args) {
+    return this.redisTemplate.execute(script, RedisSerializer.byteArray(), RESULT_SERIALIZER,
+        List.of(indexKey, sessionKey), (Object[]) args);
+  }
+
+  private void existsSession(RedisConnection connection, String sessionId) {
+    connection.keyCommands()
+        .exists(getSessionKey(sessionId).getBytes(StandardCharsets.UTF_8));
+  }
+
+  private String getIndexKey(String principalName) {
+    return this.indexKeyPrefix + principalName;
+  }
+
+  private String getSessionKey(String sessionId) {
+    return this.sessionKeyPrefix + sessionId;
+  }
+
+  private static byte[] utf8(String value) {
+    return value.getBytes(StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,230 @@
+package com.wissensalt.springsecuritysessionredis.session;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisClusterNode;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+/**
+ * Deletes broken session keys off the request path. Ids of sessions that could not be read are
+ * queued and unlinked in pipelined batches. A sweeper walks all session keys with {@code SCAN}
+ * at a bounded rate and queues keys without expiry or without the session metadata fields; a
+ * key is only queued once two consecutive sweeps found it, so sessions that are being written
+ * between two commands are left alone.
+ */
+@Slf4j
+public class RedisSessionCleaner implements AutoCloseable {
+
+  private static final byte[][] METADATA_FIELDS = {
+      DeltaRedisSessionRepository.CREATION_TIME_KEY.getBytes(UTF_8),
+      DeltaRedisSessionRepository.LAST_ACCESSED_TIME_KEY.getBytes(UTF_8),
+      DeltaRedisSessionRepository.MAX_INACTIVE_INTERVAL_KEY.getBytes(UTF_8)};
+
+  private final StringRedisTemplate redisTemplate;
+  private final String keyPrefix;
+  private final BlockingQueue<String> queue;
+  private final Set<String> queued = ConcurrentHashMap.newKeySet();
+  private final int batchSize;
+  private final int sweepScanCount;
+  private final long sweepNanosPerKey;
+  private final ScheduledExecutorService executor;
+  private final Counter readEnqueued;
+  private final Counter sweepEnqueued;
+  private final Counter dropped;
+  private final Counter unlinked;
+  private final Counter scanned;
+  private final Timer flushTimer;
+  private final Timer sweepTimer;
+  private Set<String> suspects = Set.of();
+
+  public RedisSessionCleaner(StringRedisTemplate redisTemplate, String namespace,
+      int queueCapacity, int batchSize, Duration flushInterval, Duration sweepInterval,
+      int sweepScanCount, int sweepRate, MeterRegistry meterRegistry) {
+    this.redisTemplate = redisTemplate;
+    this.keyPrefix = namespace + ":sessions:";
+    this.queue = new ArrayBlockingQueue<>(Math.max(queueCapacity, 1));
+    this.batchSize = Math.max(batchSize, 1);
+    this.sweepScanCount = Math.max(sweepScanCount, 1);
+    this.sweepNanosPerKey = TimeUnit.SECONDS.toNanos(1) / Math.max(sweepRate, 1);
+
+    this.readEnqueued = enqueuedCounter("read", meterRegistry);
+    this.sweepEnqueued = enqueuedCounter("sweep", meterRegistry);
+    this.dropped = Counter.builder("session.cleanup.dropped")
+        .description("Session ids not queued for deletion because the queue was full")
+        .register(meterRegistry);
+    this.unlinked = Counter.builder("session.cleanup.unlinked")
+        .description("Session keys removed by the cleanup queue")
+        .register(meterRegistry);
+    this.scanned = Counter.builder("session.cleanup.sweep.scanned")
+        .description("Session keys inspected by the sweeper")
+        .register(meterRegistry);
+    this.flushTimer = Timer.builder("session.cleanup.flush")
+        .description("Pipelined UNLINK of one batch of session keys")
+        .register(meterRegistry);
+    this.sweepTimer = Timer.builder("session.cleanup.sweep")
+        .description("One sweep over all session keys")
+        .register(meterRegistry);
+    Gauge.builder("session.cleanup.queue.size", this.queue, BlockingQueue::size)
+        .description("Session ids waiting for deletion")
+        .register(meterRegistry);
+
+    this.executor = Executors.newScheduledThreadPool(2, runnable -> {
+      final Thread thread = new Thread(runnable, "session-cleanup");
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.executor.scheduleWithFixedDelay(this::flush, flushInterval.toMillis(),
+        flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+    if (sweepInterval.isPositive()) {
+      this.executor.scheduleWithFixedDelay(this::sweep, sweepInterval.toMillis(),
+          sweepInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+  }
+
+  private static Counter enqueuedCounter(String source, MeterRegistry meterRegistry) {
+    return Counter.builder("session.cleanup.enqueued")
+        .description("Session ids queued for deletion")
+        .tag("source", source)
+        .register(meterRegistry);
+  }
+
+  public void enqueue(String sessionId) {
+    enqueue(sessionId, this.readEnqueued);
+  }
+
+  private void enqueue(String sessionId, Counter enqueued) {
+    if (!this.queued.add(sessionId)) {
+      return;
+    }
+    if (this.queue.offer(sessionId)) {
+      enqueued.increment();
+    } else {
+      this.queued.remove(sessionId);
+      this.dropped.increment();
+    }
+  }
+
+  void flush() {
+    final List<String> batch = new ArrayList<>(this.batchSize);
+    while (this.queue.drainTo(batch, this.batchSize) > 0) {
+      try {
+        this.flushTimer.record(() -> unlink(batch));
+      } catch (RuntimeException ex) {
+        log.warn("Could not unlink {} session keys", batch.size(), ex);
+      } finally {
+        batch.forEach(this.queued::remove);
+        batch.clear();
+      }
+    }
+  }
+
+  private void unlink(List<String> sessionIds) {
+    final List<Object> results = this.redisTemplate.executePipelined(
+        (RedisCallback<Object>) connection -> {
+          for (String sessionId : sessionIds) {
+            connection.keyCommands().unlink((this.keyPrefix + sessionId).getBytes(UTF_8));
+          }
+
+          return null;
+        });
+    this.unlinked.increment(results.stream()
+        .filter(Long.class::isInstance)
+        .mapToLong(Long.class::cast)
+        .sum());
+  }
+
+  void sweep() {
+    final Set<String> found = new HashSet<>();
+    final ScanOptions options = ScanOptions.scanOptions()
+        .match(this.keyPrefix + "*")
+        .count(this.sweepScanCount)
+        .build();
+    try {
+      this.sweepTimer.record(() -> this.redisTemplate.execute((RedisCallback<Void>) connection -> {
+        if (connection instanceof RedisClusterConnection clusterConnection) {
+          for (RedisClusterNode node : clusterConnection.clusterGetNodes()) {
+            if (node.isMaster()) {
+              sweep(clusterConnection.scan(node, options), found);
+            }
+          }
+        } else {
+          sweep(connection.keyCommands().scan(options), found);
+        }
+
+        return null;
+      }));
+      this.suspects = found;
+    } catch (RuntimeException ex) {
+      log.warn("Session sweep failed", ex);
+    }
+  }
+
+  private void sweep(Cursor<byte[]> cursor, Set<String> found) {
+    try (cursor) {
+      final List<String> keys = new ArrayList<>(this.sweepScanCount);
+      long batchStart = System.nanoTime();
+      while (cursor.hasNext() && !Thread.currentThread().isInterrupted()) {
+        keys.add(new String(cursor.next(), UTF_8));
+        if (keys.size() == this.sweepScanCount || !cursor.hasNext()) {
+          inspect(keys, found);
+          LockSupport.parkNanos(
+              batchStart + keys.size() * this.sweepNanosPerKey - System.nanoTime());
+          keys.clear();
+          batchStart = System.nanoTime();
+        }
+      }
+    }
+  }
+
+  private void inspect(List<String> keys, Set<String> found) {
+    final List<Object> results = this.redisTemplate.executePipelined(
+        (RedisCallback<Object>) connection -> {
+          for (String key : keys) {
+            final byte[] rawKey = key.getBytes(UTF_8);
+            connection.keyCommands().pTtl(rawKey);
+            connection.hashCommands().hMGet(rawKey, METADATA_FIELDS);
+          }
+
+          return null;
+        }, RedisSerializer.byteArray());
+    for (int i = 0; i < keys.size(); i++) {
+      final long ttl = (Long) results.get(2 * i);
+      final List<?> fields = (List<?>) results.get(2 * i + 1);
+      if (ttl == -1 || (ttl >= 0 && fields.contains(null))) {
+        final String sessionId = keys.get(i).substring(this.keyPrefix.length());
+        found.add(sessionId);
+        if (this.suspects.contains(sessionId)) {
+          enqueue(sessionId, this.sweepEnqueued);
+        }
+      }
+    }
+    this.scanned.increment(keys.size());
+  }
+
+  @Override
+  public void close() {
+    this.executor.shutdownNow();
+  }
+}
@@ -0,0 +1,118 @@
+package com.wissensalt.springsecuritysessionredis.session;
+
+import jakarta.servlet.http.HttpSession;
+import java.security.Principal;
+import java.util.Date;
+import java.util.List;
+import org.springframework.security.core.AuthenticatedPrincipal;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.session.SessionInformation;
+import org.springframework.security.core.session.SessionRegistry;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * {@link SessionRegistry} backed by {@link PrincipalSessionIndex}, so the session limit holds
+ * across every node sharing the Redis session store. Nothing is kept on the heap; the last
+ * request time is tracked by the session store itself and therefore reported as "now".
+ *
+ * <p>{@code ConcurrentSessionFilter} asks for the session of every authenticated request. For the
+ * session of the current request the answer comes from its security context, which the session
+ * store already loaded, instead of another lookup of the principal in Redis.
+ */
+public class RedisSessionRegistry implements SessionRegistry {
+
+  private static final String SECURITY_CONTEXT_ATTRIBUTE =
+      HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY;
+
+  private final PrincipalSessionIndex principalSessionIndex;
+
+  public RedisSessionRegistry(PrincipalSessionIndex principalSessionIndex) {
+    this.principalSessionIndex = principalSessionIndex;
+  }
+
+  @Override
+  public List<Object> getAllPrincipals() {
+    throw new UnsupportedOperationException(
+        "RedisSessionRegistry does not support retrieving all principals, "
+            + "since that would require a full scan of the session store");
+  }
+
+  @Override
+  public List<SessionInformation> getAllSessions(Object principal,
+      boolean includeExpiredSessions) {
+    return this.principalSessionIndex.getSessionIds(getPrincipalName(principal))
+        .stream()
+        .map(sessionId -> new SessionInformation(principal, sessionId, new Date()))
+        .toList();
+  }
+
+  @Override
+  public SessionInformation getSessionInformation(String sessionId) {
+    final HttpSession currentSession = currentSession(sessionId);
+    if (currentSession != null) {
+      return currentSession.getAttribute(SECURITY_CONTEXT_ATTRIBUTE)
+          instanceof SecurityContext context && context.getAuthentication() != null
+          ? new SessionInformation(context.getAuthentication().getName(), sessionId, new Date())
+          : null;
+    }
+
+    final String principalName = this.principalSessionIndex.getPrincipalName(sessionId);
+    if (principalName == null) {
+      return null;
+    }
+
+    return new SessionInformation(principalName, sessionId, new Date());
+  }
+
+  @Override
+  public void refreshLastRequest(String sessionId) {
+  }
+
+  @Override
+  public void registerNewSession(String sessionId, Object principal) {
+    this.principalSessionIndex.add(getPrincipalName(principal), sessionId);
+  }
+
+  /**
+   * Registers the session only if the principal has fewer than {@code maxSessions} other live
+   * sessions, checked and added atomically across nodes.
+   *
+   * @return whether the session was registered
+   */
+  public boolean registerNewSession(String sessionId, Object principal, int maxSessions) {
+    return this.principalSessionIndex.addIfAllowed(getPrincipalName(principal), sessionId,
+        maxSessions);
+  }
+
+  @Override
+  public void removeSessionInformation(String sessionId) {
+    this.principalSessionIndex.remove(sessionId);
+  }
+
+  private static HttpSession currentSession(String sessionId) {
+    if (!(RequestContextHolder.getRequestAttributes()
+        instanceof ServletRequestAttributes attributes)) {
+      return null;
+    }
+    final HttpSession session = attributes.getRequest().getSession(false);
+
+    return session != null && session.getId().equals(sessionId) ? session : null;
+  }
+
+  static String getPrincipalName(Object principal) {
+    if (principal instanceof UserDetails userDetails) {
+      return userDetails.getUsername();
+    }
+    if (principal instanceof AuthenticatedPrincipal authenticatedPrincipal) {
+      return authenticatedPrincipal.getName();
+    }
+    if (principal instanceof Principal namedPrincipal) {
+      return namedPrincipal.getName();
+    }
+
+    return principal.toString();
+  }
+}
@@ -0,0 +1,63 @@
+package com.wissensalt.springsecuritysessionredis.session;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.UUID;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.session.MapSession;
+
+/**
+ * Bounded, TTL-limited in-process copy of recently used sessions. Entries are dropped on every
+ * node through a Redis pub/sub channel whenever a session's content changes or it is deleted.
+ */
+public class SessionNearCache implements MessageListener {
+
+  private static final char SEPARATOR = ':';
+
+  private final Cache<String, MapSession> sessions;
+  private final StringRedisTemplate redisTemplate;
+  private final String channel;
+  private final String nodeId = UUID.randomUUID().toString();
+
+  public SessionNearCache(long maximumSize, Duration timeToLive, StringRedisTemplate redisTemplate,
+      String channel) {
+    this.sessions = Caffeine.newBuilder()
+        .maximumSize(maximumSize)
+        .expireAfterWrite(timeToLive)
+        .build();
+    this.redisTemplate = redisTemplate;
+    this.channel = channel;
+  }
+
+  public MapSession get(String sessionId) {
+    return this.sessions.getIfPresent(sessionId);
+  }
+
+  public void put(MapSession session) {
+    this.sessions.put(session.getId(), session);
+  }
+
+  public void evict(String sessionId) {
+    this.sessions.invalidate(sessionId);
+  }
+
+  public void invalidate(String sessionId) {
+    evict(sessionId);
+    this.redisTemplate.convertAndSend(this.channel, this.nodeId + SEPARATOR + sessionId);
+  }
+
+  @Override
+  public void onMessage(Message message, byte[] pattern) {
+    final String body = new String(message.getBody(), StandardCharsets.UTF_8);
+    final int separator = body.indexOf(SEPARATOR);
+    if (separator < 0 || this.nodeId.equals(body.substring(0, separator))) {
+      return;
+    }
+
+    evict(body.substring(separator + 1));
+  }
+}
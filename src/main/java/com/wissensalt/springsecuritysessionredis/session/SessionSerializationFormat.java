@@ -0,0 +1,5 @@
+package com.wissensalt.springsecuritysessionredis.session;
+
+public enum SessionSerializationFormat {
+  JSON, COMPACT
+}
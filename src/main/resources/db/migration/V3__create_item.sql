@@ -1,4 +1,4 @@
-CREATE TABLE item
+CREATE TABLE IF NOT EXISTS item
 (
     id    BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
     name  VARCHAR(255),
@@ -0,0 +1,6 @@
+CREATE SEQUENCE item_seq INCREMENT BY 50;
+
+SELECT setval('item_seq', COALESCE((SELECT MAX(id) FROM item), 0) + 50, false);
+
+ALTER TABLE item
+    ALTER COLUMN id DROP IDENTITY IF EXISTS;
@@ -0,0 +1,44 @@
+package com.wissensalt.springsecuritysessionredis;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import org.springframework.test.context.DynamicPropertyRegistry;
+
+/**
+ * One embedded Postgres per test JVM, shared by every test context that needs the real schema.
+ * Flyway migrates it when the first context starts.
+ */
+public final class EmbeddedPostgresSupport {
+
+  private static EmbeddedPostgres postgres;
+
+  private EmbeddedPostgresSupport() {
+  }
+
+  public static void registerDataSource(DynamicPropertyRegistry registry) {
+    final EmbeddedPostgres instance = start();
+    registry.add("spring.datasource.url", () -> instance.getJdbcUrl("postgres", "postgres"));
+    registry.add("spring.datasource.username", () -> "postgres");
+    registry.add("spring.datasource.password", () -> "postgres");
+  }
+
+  private static synchronized EmbeddedPostgres start() {
+    if (postgres == null) {
+      try {
+        postgres = EmbeddedPostgres.start();
+      } catch (IOException ex) {
+        throw new UncheckedIOException(ex);
+      }
+      Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+        try {
+          postgres.close();
+        } catch (IOException ignored) {
+          // the JVM is exiting
+        }
+      }));
+    }
+
+    return postgres;
+  }
+}
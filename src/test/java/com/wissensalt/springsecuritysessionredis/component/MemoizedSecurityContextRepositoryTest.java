@@ -0,0 +1,76 @@
+package com.wissensalt.springsecuritysessionredis.component;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.wissensalt.springsecuritysessionredis.EmbeddedPostgresSupport;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+
+@SpringBootTest(properties = "app.session.store=memory")
+@AutoConfigureMockMvc
+class MemoizedSecurityContextRepositoryTest {
+
+  private static final String AUTH_HEADER = "X-Auth-Token";
+  private static final String EMAIL = "context-loads@mail.com";
+  private static final String PASSWORD = "context-loads-password";
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @DynamicPropertySource
+  static void dataSource(DynamicPropertyRegistry registry) {
+    EmbeddedPostgresSupport.registerDataSource(registry);
+  }
+
+  @Test
+  void loadsContextOnlyWhenAuthorizationNeedsIt() throws Exception {
+    double loads = loads();
+    perform(post("/register").contentType(MediaType.APPLICATION_JSON).content("""
+        {"email":"%s","password":"%s","role":"USER"}""".formatted(EMAIL, PASSWORD)));
+    assertThat(loads() - loads).as("loads for /register").isZero();
+
+    loads = loads();
+    final String token = perform(post("/login").contentType(MediaType.APPLICATION_JSON).content("""
+        {"email":"%s","password":"%s"}""".formatted(EMAIL, PASSWORD)))
+        .andExpect(header().exists(AUTH_HEADER))
+        .andReturn().getResponse().getHeader(AUTH_HEADER);
+    assertThat(loads() - loads).as("loads for /login").isZero();
+
+    loads = loads();
+    perform(get("/user").header(AUTH_HEADER, token));
+    assertThat(loads() - loads).as("loads for /user").isEqualTo(1);
+
+    loads = loads();
+    perform(post("/register").header(AUTH_HEADER, token)
+        .contentType(MediaType.APPLICATION_JSON).content("""
+            {"email":"other-%s","password":"%s","role":"USER"}""".formatted(EMAIL, PASSWORD)));
+    assertThat(loads() - loads).as("loads for /register with a session").isZero();
+  }
+
+  private ResultActions perform(RequestBuilder requestBuilder) throws Exception {
+    return this.mockMvc.perform(requestBuilder).andExpect(status().isOk());
+  }
+
+  private double loads() {
+    return this.meterRegistry.find("security.context.loads").counters().stream()
+        .mapToDouble(Counter::count)
+        .sum();
+  }
+}
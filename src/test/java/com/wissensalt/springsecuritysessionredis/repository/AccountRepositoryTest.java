@@ -0,0 +1,62 @@
+package com.wissensalt.springsecuritysessionredis.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.wissensalt.springsecuritysessionredis.EmbeddedPostgresSupport;
+import com.wissensalt.springsecuritysessionredis.model.Account;
+import com.wissensalt.springsecuritysessionredis.model.Role;
+import com.wissensalt.springsecuritysessionredis.model.Role.RoleName;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+class AccountRepositoryTest {
+
+  private static final String EMAIL = "authorities@mail.com";
+
+  @Autowired
+  private AccountRepository accountRepository;
+
+  @Autowired
+  private RoleRepository roleRepository;
+
+  @Autowired
+  private EntityManager entityManager;
+
+  @DynamicPropertySource
+  static void dataSource(DynamicPropertyRegistry registry) {
+    EmbeddedPostgresSupport.registerDataSource(registry);
+  }
+
+  @Test
+  void loadsAccountWithRolesAndPrivilegesInOneStatement() {
+    final Account account = new Account();
+    account.setEmail(EMAIL);
+    account.setPassword("{bcrypt}hash");
+    account.getRoles().add(this.roleRepository.findFirstByName(RoleName.ADMIN).orElseThrow());
+    this.accountRepository.saveAndFlush(account);
+    this.entityManager.clear();
+    final Statistics statistics = this.entityManager.getEntityManagerFactory()
+        .unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+
+    final Account loaded = this.accountRepository.findWithAuthoritiesByEmail(EMAIL).orElseThrow();
+
+    assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    assertThat(Hibernate.isInitialized(loaded.getRoles())).isTrue();
+    assertThat(loaded.getRoles()).isNotEmpty().allSatisfy((Role role) ->
+        assertThat(Hibernate.isInitialized(role.getPrivileges())).isTrue());
+    assertThat(loaded.getRoles()).flatExtracting(Role::getPrivileges).isNotEmpty();
+    assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+  }
+}
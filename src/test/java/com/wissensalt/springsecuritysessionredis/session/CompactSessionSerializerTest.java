@@ -0,0 +1,46 @@
+package com.wissensalt.springsecuritysessionredis.session;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.jackson2.SecurityJackson2Modules;
+
+class CompactSessionSerializerTest {
+
+  private final CompactSessionSerializer serializer = new CompactSessionSerializer(
+      new GenericJackson2JsonRedisSerializer(new ObjectMapper()
+          .registerModules(SecurityJackson2Modules.getModules(getClass().getClassLoader()))),
+      SessionSerializationFormat.COMPACT);
+
+  @Test
+  void writesStringsOverTheUtfLimitAsJson() {
+    final String value = "x".repeat(70_000);
+
+    final byte[] bytes = this.serializer.serialize(value);
+
+    assertThat(bytes[0]).isEqualTo(CompactSessionSerializer.MAGIC);
+    assertThat(this.serializer.deserialize(bytes)).isEqualTo(value);
+  }
+
+  @Test
+  void keepsAuthoritiesOverTheShortCount() {
+    final List<SimpleGrantedAuthority> authorities = IntStream.range(0, 70_000)
+        .mapToObj(index -> new SimpleGrantedAuthority("AUTHORITY_" + index))
+        .toList();
+    final SecurityContextImpl context = new SecurityContextImpl(
+        UsernamePasswordAuthenticationToken.authenticated("user@mail.com", null, authorities));
+
+    final Object read = this.serializer.deserialize(this.serializer.serialize(context));
+
+    assertThat(read).isInstanceOf(SecurityContextImpl.class);
+    assertThat(((SecurityContextImpl) read).getAuthentication().getAuthorities())
+        .hasSize(authorities.size());
+  }
+}
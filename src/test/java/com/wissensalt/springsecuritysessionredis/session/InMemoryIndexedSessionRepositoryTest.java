@@ -0,0 +1,165 @@
+package com.wissensalt.springsecuritysessionredis.session;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.springframework.session.FindByIndexNameSessionRepository.PRINCIPAL_NAME_INDEX_NAME;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.session.MapSession;
+
+class InMemoryIndexedSessionRepositoryTest {
+
+  private InMemoryIndexedSessionRepository repository;
+
+  @AfterEach
+  void close() {
+    if (this.repository != null) {
+      this.repository.close();
+    }
+  }
+
+  @Test
+  void doesNotReturnExpiredSessions() {
+    this.repository = new InMemoryIndexedSessionRepository(Duration.ofHours(1), 8);
+    final MapSession session = session("user@mail.com", Duration.ofMinutes(30));
+    session.setLastAccessedTime(Instant.now().minus(Duration.ofHours(1)));
+    this.repository.save(session);
+
+    assertThat(this.repository.findById(session.getId())).isNull();
+    assertThat(this.repository.size()).isZero();
+    assertThat(this.repository.findByPrincipalName("user@mail.com")).isEmpty();
+  }
+
+  @Test
+  void movesSessionToTheNewPrincipal() {
+    this.repository = new InMemoryIndexedSessionRepository(Duration.ofHours(1), 8);
+    final MapSession session = session("old@mail.com", Duration.ofMinutes(30));
+    this.repository.save(session);
+
+    final MapSession loaded = this.repository.findById(session.getId());
+    loaded.setAttribute(PRINCIPAL_NAME_INDEX_NAME, "new@mail.com");
+    this.repository.save(loaded);
+
+    assertThat(this.repository.findByPrincipalName("old@mail.com")).isEmpty();
+    assertThat(this.repository.findByPrincipalName("new@mail.com"))
+        .containsOnlyKeys(session.getId());
+  }
+
+  @Test
+  void removesDeletedSessionFromThePrincipalIndex() {
+    this.repository = new InMemoryIndexedSessionRepository(Duration.ofHours(1), 8);
+    final MapSession first = session("user@mail.com", Duration.ofMinutes(30));
+    final MapSession second = session("user@mail.com", Duration.ofMinutes(30));
+    this.repository.save(first);
+    this.repository.save(second);
+
+    this.repository.deleteById(first.getId());
+
+    assertThat(this.repository.findById(first.getId())).isNull();
+    assertThat(this.repository.findByPrincipalName("user@mail.com"))
+        .containsOnlyKeys(second.getId());
+  }
+
+  @Test
+  void replacesTheOldIdOnIdChange() {
+    this.repository = new InMemoryIndexedSessionRepository(Duration.ofHours(1), 8);
+    final MapSession session = session("user@mail.com", Duration.ofMinutes(30));
+    this.repository.save(session);
+    final String originalId = session.getId();
+
+    final MapSession loaded = this.repository.findById(originalId);
+    final String changedId = loaded.changeSessionId();
+    this.repository.save(loaded);
+
+    assertThat(this.repository.findById(originalId)).isNull();
+    assertThat(this.repository.findById(changedId)).isNotNull();
+    assertThat(this.repository.findByPrincipalName("user@mail.com"))
+        .containsOnlyKeys(changedId);
+    assertThat(this.repository.size()).isOne();
+  }
+
+  @Test
+  void reusesTheQueuedEntryWhenADeletedIdIsSavedAgain() {
+    this.repository = new InMemoryIndexedSessionRepository(Duration.ofHours(1), 8);
+    final MapSession session = session("user@mail.com", Duration.ofMinutes(30));
+    this.repository.save(session);
+
+    this.repository.deleteById(session.getId());
+    this.repository.save(session);
+
+    assertThat(this.repository.findById(session.getId())).isNotNull();
+    assertThat(this.repository.queuedEntries()).isOne();
+  }
+
+  @Test
+  void keepsSessionsThatLiveLongerThanOneTurnOfTheWheel() throws InterruptedException {
+    this.repository = new InMemoryIndexedSessionRepository(Duration.ofMillis(5), 4);
+    final MapSession session = session("user@mail.com", Duration.ofMillis(300));
+    this.repository.save(session);
+
+    Thread.sleep(100);
+    await().atMost(Duration.ofMillis(100))
+        .untilAsserted(() -> {
+          assertThat(this.repository.findById(session.getId())).isNotNull();
+          assertThat(this.repository.queuedEntries()).isOne();
+        });
+    await().atMost(Duration.ofSeconds(5))
+        .untilAsserted(() -> {
+          assertThat(this.repository.size()).isZero();
+          assertThat(this.repository.queuedEntries()).isZero();
+        });
+  }
+
+  @Test
+  void reschedulesTouchedSessions() throws InterruptedException {
+    this.repository = new InMemoryIndexedSessionRepository(Duration.ofMillis(5), 8);
+    final MapSession session = session("user@mail.com", Duration.ofMillis(200));
+    this.repository.save(session);
+
+    for (int i = 0; i < 8; i++) {
+      Thread.sleep(50);
+      final MapSession loaded = this.repository.findById(session.getId());
+      assertThat(loaded).isNotNull();
+      loaded.setLastAccessedTime(Instant.now());
+      this.repository.save(loaded);
+    }
+
+    await().atMost(Duration.ofMillis(100))
+        .untilAsserted(() -> assertThat(this.repository.queuedEntries()).isOne());
+    await().atMost(Duration.ofSeconds(5))
+        .untilAsserted(() -> assertThat(this.repository.size()).isZero());
+  }
+
+  @Test
+  void expiresEverySessionSavedWhileTheWheelTurns() {
+    this.repository = new InMemoryIndexedSessionRepository(Duration.ofMillis(1), 16);
+    final List<CompletableFuture<Void>> writers = new ArrayList<>();
+    for (int writer = 0; writer < 8; writer++) {
+      writers.add(CompletableFuture.runAsync(() -> IntStream.range(0, 2_000).forEach(index ->
+          this.repository.save(session("user@mail.com", Duration.ofMillis(50))))));
+    }
+    CompletableFuture.allOf(writers.toArray(CompletableFuture[]::new)).join();
+
+    await().atMost(Duration.ofSeconds(10))
+        .untilAsserted(() -> {
+          assertThat(this.repository.size()).isZero();
+          assertThat(this.repository.queuedEntries()).isZero();
+          assertThat(this.repository.findByPrincipalName("user@mail.com")).isEmpty();
+        });
+  }
+
+  private static MapSession session(String principalName, Duration maxInactiveInterval) {
+    final MapSession session = new MapSession();
+    session.setMaxInactiveInterval(maxInactiveInterval);
+    session.setAttribute(PRINCIPAL_NAME_INDEX_NAME, principalName);
+
+    return session;
+  }
+}